@@ -3,10 +3,36 @@ CREATE TABLE IF NOT EXISTS usersdata (
     name VARCHAR(100) NOT NULL,
     email VARCHAR(150) UNIQUE NOT NULL,
     age INTEGER,
-    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    version BIGINT NOT NULL DEFAULT 0
 );
 
-CREATE INDEX IF NOT EXISTS idx_users_email ON usersdata(email);
+-- Optimistic locking column for databases created before it existed
+ALTER TABLE usersdata ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+
+-- Hibernate allocates ids in blocks of 50 (pooled-lo); the increment must match allocationSize
+ALTER SEQUENCE usersdata_id_seq INCREMENT BY 50;
+
+-- Emails are stored trimmed and lower-cased (org.example.util.Emails); bring older rows in line.
+-- Fails on addresses that differ only by case, which have to be merged by hand first.
+UPDATE usersdata SET email = lower(trim(email)) WHERE email <> lower(trim(email));
+
+-- Case-insensitive uniqueness and lookups (GET /api/users/by-email). INCLUDE (email) lets
+-- the batch uniqueness check run as an index-only scan. The plain index on email that used
+-- to live here duplicated the one behind the UNIQUE constraint.
+DROP INDEX IF EXISTS idx_users_email;
+CREATE UNIQUE INDEX IF NOT EXISTS idx_users_email_lower ON usersdata (lower(email)) INCLUDE (email);
+
+-- Indexes behind GET /api/users/search (UserSearchQuery); the btrees end in id to match the keyset order
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+-- fastupdate off: new rows go straight into the index instead of a pending list that
+-- the planner prices as a scan, which turned name searches into sequential scans until vacuum
+CREATE INDEX IF NOT EXISTS idx_users_name_trgm ON usersdata USING gin (lower(name) gin_trgm_ops)
+    WITH (fastupdate = off);
+CREATE INDEX IF NOT EXISTS idx_users_age ON usersdata(age, id);
+CREATE INDEX IF NOT EXISTS idx_users_created_at ON usersdata(created_at, id);
+-- Recent created_at ranges sit at the end of the id order; see db/search-statistics.sql
+ALTER TABLE usersdata ALTER COLUMN created_at SET STATISTICS 1000;
 
 INSERT INTO usersdata (name, email, age) VALUES
     ('John Doe', 'john.doe@example.com', 30),
@@ -0,0 +1,120 @@
+package org.example.bench;
+
+import org.example.dao.UserDaoInMemory;
+import org.example.mappers.UserMapper;
+import org.example.model.User;
+import org.example.repository.UserRepository;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Limit;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.stream.Stream;
+
+/**
+ * {@link UserRepository} over {@link UserDaoInMemory}, so service benchmarks measure the
+ * service rather than the database. The DAO holds the rows and enforces the table's
+ * constraints (unique email, optimistic version, detached copies); this class only adds
+ * the id order keyset pages need. It answers the repository methods {@code UserService}
+ * calls outside CSV import and search, which are database-bound by design; those throw.
+ */
+final class InMemoryUserRepository implements InvocationHandler {
+
+    private final UserDaoInMemory rows = new UserDaoInMemory();
+    private final ConcurrentSkipListSet<Long> ids = new ConcurrentSkipListSet<>();
+
+    static UserRepository create() {
+        return (UserRepository) Proxy.newProxyInstance(UserRepository.class.getClassLoader(),
+                new Class<?>[]{UserRepository.class}, new InMemoryUserRepository());
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Object invoke(Object proxy, Method method, Object[] args) {
+        return switch (method.getName()) {
+            case "existsById" -> rows.findById((Long) args[0]).isPresent();
+            case "findDtoById" -> rows.findById((Long) args[0]).map(UserMapper::toDto);
+            case "findDtoByEmail" -> rows.findByEmail((String) args[0]).map(UserMapper::toDto);
+            case "findAllByIdAny" -> ((Collection<Long>) args[0]).stream()
+                    .flatMap(id -> rows.findById(id).stream())
+                    .map(UserMapper::toDto)
+                    .toList();
+            case "findDtosAfterId" -> after((Long) args[0], ((Limit) args[1]).max()).map(UserMapper::toDto).toList();
+            // The database reads only the selected columns; here whole rows are already in memory
+            case "findFieldsAfterId" -> after((Long) args[1], (Integer) args[2]).map(UserMapper::toDto).toList();
+            case "streamAllAsDto" -> after(0L, Integer.MAX_VALUE).map(UserMapper::toDto);
+            case "streamAllAsSuggestions" -> after(0L, Integer.MAX_VALUE).map(UserMapper::toSuggestion);
+            case "insertIfEmailAbsent" -> insert((User) args[0]);
+            case "insertAllIfEmailAbsent" -> ((List<User>) args[0]).stream()
+                    .flatMap(user -> insert(user).stream())
+                    .toList();
+            case "updateReturning" -> update((Long) args[0], (String) args[1], (String) args[2],
+                    (Integer) args[3], (Long) args[4], false);
+            case "patchReturning" -> update((Long) args[0], (String) args[1], (String) args[2],
+                    (Integer) args[3], (Long) args[4], true);
+            case "deleteReturningVersion" -> delete((Long) args[0]).map(User::getVersion);
+            case "deleteAllByIdReturning" -> deleteAll((Collection<Long>) args[0]);
+            case "hashCode" -> System.identityHashCode(proxy);
+            case "equals" -> proxy == args[0];
+            case "toString" -> "InMemoryUserRepository";
+            default -> throw new UnsupportedOperationException("Not benchmarked in memory: " + method.getName());
+        };
+    }
+
+    private Stream<User> after(long afterId, int limit) {
+        return ids.tailSet(afterId, false).stream()
+                .flatMap(id -> rows.findById(id).stream())
+                .limit(limit);
+    }
+
+    // Benchmarks never insert the same email concurrently, so checking first is enough
+    private Optional<User> insert(User user) {
+        if (rows.findByEmail(user.getEmail()).isPresent()) {
+            return Optional.empty();
+        }
+        User saved = rows.save(user);
+        ids.add(saved.getId());
+        return Optional.of(saved);
+    }
+
+    private Optional<User> update(Long id, String name, String email, Integer age, Long expectedVersion,
+                                  boolean sparse) {
+        User current = rows.findById(id).orElse(null);
+        if (current == null || (expectedVersion != null && !expectedVersion.equals(current.getVersion()))) {
+            return Optional.empty();
+        }
+        User updated = new User(sparse && name == null ? current.getName() : name,
+                sparse && email == null ? current.getEmail() : email,
+                sparse && age == null ? current.getAge() : age);
+        updated.setId(id);
+        updated.setVersion(current.getVersion());
+        if (!updated.getEmail().equals(current.getEmail()) && rows.findByEmail(updated.getEmail()).isPresent()) {
+            throw new DuplicateKeyException(updated.getEmail());
+        }
+        return Optional.of(rows.update(updated));
+    }
+
+    private Map<Long, Long> deleteAll(Collection<Long> deletedIds) {
+        Map<Long, Long> deleted = new HashMap<>();
+        for (Long id : deletedIds) {
+            delete(id).ifPresent(user -> deleted.put(id, user.getVersion()));
+        }
+        return deleted;
+    }
+
+    private Optional<User> delete(Long id) {
+        Optional<User> removed = rows.findById(id);
+        removed.ifPresent(user -> {
+            rows.delete(id);
+            ids.remove(id);
+        });
+        return removed;
+    }
+}
@@ -0,0 +1,90 @@
+package org.example.bench;
+
+import org.example.dao.UserDao;
+import org.example.dao.UserDaoFactory;
+import org.example.model.User;
+import org.example.util.HibernateUtil;
+import org.example.util.JdbcUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the Hibernate and plain-JDBC {@link UserDao} engines on the same database,
+ * with the in-memory engine as the no-I/O baseline.
+ * Connection settings come from hibernate.cfg.xml or -Dhibernate.connection.* passed
+ * via {@code -jvmArgsAppend}. Seeds its own rows and removes them afterwards.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Dhibernate.show_sql=false", "-Dhibernate.format_sql=false"})
+@Threads(4)
+public class UserDaoBenchmark {
+
+    private static final int ROWS = 1_000;
+
+    @Param({"hibernate", "jdbc", "memory"})
+    public String engine;
+
+    private UserDao userDao;
+    private long[] ids;
+    private String[] emails;
+    private String emailPrefix;
+
+    @Setup(Level.Trial)
+    public void seed() {
+        userDao = UserDaoFactory.create(engine);
+        emailPrefix = "bench-" + engine + "-" + System.nanoTime() + "-";
+        ids = new long[ROWS];
+        emails = new String[ROWS];
+        for (int i = 0; i < ROWS; i++) {
+            emails[i] = emailPrefix + i + "@example.com";
+            ids[i] = userDao.save(new User("Bench User " + i, emails[i], 20 + i % 50)).getId();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void cleanUp() {
+        for (long id : ids) {
+            userDao.delete(id);
+        }
+        HibernateUtil.shutdown();
+        JdbcUtil.shutdown();
+    }
+
+    @Benchmark
+    public Optional<User> findById() {
+        return userDao.findById(ids[ThreadLocalRandom.current().nextInt(ROWS)]);
+    }
+
+    @Benchmark
+    public Optional<User> findByEmail() {
+        return userDao.findByEmail(emails[ThreadLocalRandom.current().nextInt(ROWS)]);
+    }
+
+    @Benchmark
+    public User saveAndDelete() {
+        User user = userDao.save(new User("Transient", emailPrefix + "t-" + System.nanoTime()
+                + "-" + Thread.currentThread().getId() + "@example.com", 30));
+        userDao.delete(user.getId());
+        return user;
+    }
+}
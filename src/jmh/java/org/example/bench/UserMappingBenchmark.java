@@ -0,0 +1,106 @@
+package org.example.bench;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.example.dto.CreateUserRequest;
+import org.example.dto.UserDto;
+import org.example.mappers.UserMapper;
+import org.example.model.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request CPU work outside the database: entity-to-DTO mapping, JSON binding of
+ * the request and response bodies, and Bean Validation of {@link CreateUserRequest}.
+ * Run with {@code -prof gc} to report allocation per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserMappingBenchmark {
+
+    private User user;
+    private UserDto userDto;
+    private String userDtoJson;
+    private String createRequestJson;
+    private CreateUserRequest validRequest;
+    private CreateUserRequest invalidRequest;
+    private ObjectMapper objectMapper;
+    private ValidatorFactory validatorFactory;
+    private Validator validator;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        user = new User("John Doe", "john.doe@example.com", 30);
+        user.setId(42L);
+        user.setCreatedAt(LocalDateTime.of(2024, 1, 15, 10, 30));
+        user.setVersion(3L);
+        userDto = UserMapper.toDto(user);
+
+        // Same defaults Spring Boot applies to the MVC ObjectMapper
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        userDtoJson = objectMapper.writeValueAsString(userDto);
+        createRequestJson = "{\"name\":\"John Doe\",\"email\":\"john.doe@example.com\",\"age\":30}";
+
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        validator = validatorFactory.getValidator();
+        validRequest = new CreateUserRequest("John Doe", "john.doe@example.com", 30);
+        invalidRequest = new CreateUserRequest(" ", "not-an-email", -1);
+    }
+
+    @TearDown
+    public void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Benchmark
+    public UserDto mapToDto() {
+        return UserMapper.toDto(user);
+    }
+
+    @Benchmark
+    public String serializeUserDto() throws JsonProcessingException {
+        return objectMapper.writeValueAsString(userDto);
+    }
+
+    @Benchmark
+    public UserDto deserializeUserDto() throws JsonProcessingException {
+        return objectMapper.readValue(userDtoJson, UserDto.class);
+    }
+
+    @Benchmark
+    public CreateUserRequest deserializeCreateRequest() throws JsonProcessingException {
+        return objectMapper.readValue(createRequestJson, CreateUserRequest.class);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<CreateUserRequest>> validateValidRequest() {
+        return validator.validate(validRequest);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<CreateUserRequest>> validateInvalidRequest() {
+        return validator.validate(invalidRequest);
+    }
+}
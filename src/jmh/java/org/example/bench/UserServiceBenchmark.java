@@ -0,0 +1,237 @@
+package org.example.bench;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.cache.UserCache;
+import org.example.config.MetricsConfig;
+import org.example.config.QueryCountAspect;
+import org.example.dto.BatchCreateResponse;
+import org.example.dto.CreateUserRequest;
+import org.example.dto.PatchUserRequest;
+import org.example.dto.UpdateUserRequest;
+import org.example.dto.UserDto;
+import org.example.dto.UserField;
+import org.example.dto.UserLookupResponse;
+import org.example.dto.UserPage;
+import org.example.dto.UserSuggestion;
+import org.example.repository.UserRepository;
+import org.example.search.UserSuggestIndex;
+import org.example.service.UserService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.EnableAspectJAutoProxy;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.EnableTransactionManagement;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Each public {@link UserService} operation against {@link InMemoryUserRepository},
+ * isolating service-layer overhead (validation, mapping, caching, result assembly)
+ * from database latency. The service is the Spring bean, so calls go through the
+ * transaction proxy, the {@code @Timed} and query-count aspects and after-commit
+ * callbacks as in the application; the transaction manager binds no resources. The
+ * table holds more rows than the cache, so {@code getUserById} mostly misses and
+ * {@code getUserByIdHot} mostly hits. CSV import and search are not covered: they are
+ * database-bound by design. Run with {@code -prof gc} to report allocation per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserServiceBenchmark {
+
+    private static final int CACHE_SIZE = 10_000;
+    private static final int ROWS = 5 * CACHE_SIZE;
+    private static final int BATCH = 100;
+    private static final Set<UserField> ID_AND_EMAIL = UserField.parse("id,email");
+
+    private final AtomicLong emails = new AtomicLong();
+    private AnnotationConfigApplicationContext context;
+    private UserService userService;
+    private List<Long> lookupIds;
+
+    @Setup
+    public void setUp() {
+        context = new AnnotationConfigApplicationContext(ServiceContext.class);
+        userService = context.getBean(UserService.class);
+        for (int i = 0; i < ROWS; i++) {
+            userService.createUser(newRequest());
+        }
+        lookupIds = new ArrayList<>();
+        for (long id = 1; id <= 50; id++) {
+            lookupIds.add(id * 7);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public UserDto getUserById() {
+        return userService.getUserById(randomId());
+    }
+
+    @Benchmark
+    public UserDto getUserByIdHot() {
+        return userService.getUserById(ThreadLocalRandom.current().nextLong(1, CACHE_SIZE / 2 + 1));
+    }
+
+    @Benchmark
+    public UserDto getUserByEmail() {
+        return userService.getUserByEmail("user" + randomId() + "@example.com");
+    }
+
+    @Benchmark
+    public UserLookupResponse getUsersByIds() {
+        return userService.getUsersByIds(lookupIds);
+    }
+
+    @Benchmark
+    public UserPage getUsersPage() {
+        return userService.getUsers(null, 50);
+    }
+
+    @Benchmark
+    public UserPage getUsersPageIdAndEmail() {
+        return userService.getUsers(null, 50, ID_AND_EMAIL);
+    }
+
+    @Benchmark
+    public List<UserSuggestion> suggestUsers() {
+        return userService.suggestUsers("user " + ThreadLocalRandom.current().nextInt(1, 100), 10);
+    }
+
+    @Benchmark
+    public void exportUsers(Blackhole blackhole) {
+        userService.exportUsers(blackhole::consume);
+    }
+
+    @Benchmark
+    public UserDto updateUser() {
+        long id = randomId();
+        return userService.updateUser(id, new UpdateUserRequest("Updated", "user" + id + "@example.com", 40));
+    }
+
+    @Benchmark
+    public UserDto patchUser() {
+        return userService.patchUser(randomId(), new PatchUserRequest(null, null, 41), null);
+    }
+
+    @Benchmark
+    public UserDto createAndDeleteUser() {
+        UserDto created = userService.createUser(newRequest());
+        userService.deleteUser(created.getId());
+        return created;
+    }
+
+    @Benchmark
+    public BatchCreateResponse createUsersBatch() {
+        List<CreateUserRequest> requests = new ArrayList<>(BATCH);
+        for (int i = 0; i < BATCH; i++) {
+            requests.add(newRequest());
+        }
+        BatchCreateResponse response = userService.createUsers(requests);
+        List<Long> ids = new ArrayList<>(BATCH);
+        response.getResults().forEach(result -> ids.add(result.getUser().getId()));
+        userService.deleteUsers(ids);
+        return response;
+    }
+
+    private long randomId() {
+        return ThreadLocalRandom.current().nextLong(1, ROWS + 1);
+    }
+
+    // Emails are never reused, so ids 1..ROWS keep the seeded user<id>@example.com addresses
+    private CreateUserRequest newRequest() {
+        long n = emails.incrementAndGet();
+        return new CreateUserRequest("User " + n, "user" + n + "@example.com", (int) (n % 90));
+    }
+
+    // The beans of the application that a service call passes through, minus the database
+    @Configuration(proxyBeanMethods = false)
+    @EnableTransactionManagement(proxyTargetClass = true)
+    @EnableAspectJAutoProxy(proxyTargetClass = true)
+    @Import({UserService.class, MetricsConfig.class, QueryCountAspect.class})
+    static class ServiceContext {
+
+        @Bean
+        UserRepository userRepository() {
+            return InMemoryUserRepository.create();
+        }
+
+        @Bean
+        UserCache userCache() {
+            return new UserCache(CACHE_SIZE, Duration.ofMinutes(5));
+        }
+
+        @Bean
+        UserSuggestIndex userSuggestIndex() {
+            return new UserSuggestIndex(10_000);
+        }
+
+        @Bean
+        LocalValidatorFactoryBean validator() {
+            return new LocalValidatorFactoryBean();
+        }
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+
+        @Bean
+        PlatformTransactionManager transactionManager() {
+            return new SynchronizationOnlyTransactionManager();
+        }
+    }
+
+    // Runs transaction synchronization (cache evictions, index updates) like JpaTransactionManager
+    private static final class SynchronizationOnlyTransactionManager extends AbstractPlatformTransactionManager {
+
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+        }
+    }
+}
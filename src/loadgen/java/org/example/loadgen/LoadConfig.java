@@ -0,0 +1,80 @@
+package org.example.loadgen;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Load generator settings, parsed from {@code key=value} arguments.
+ * Unspecified keys keep the defaults below.
+ */
+final class LoadConfig {
+
+    String baseUrl = "http://localhost:8080/api/users";
+    Duration duration = Duration.ofSeconds(60);
+    Duration warmup = Duration.ofSeconds(10);
+    int concurrency = 32;
+    // Target request rate across all workers; latency is measured from each
+    // request's scheduled start, so a stalled server cannot hide its queueing delay
+    int rate = 500;
+    int keys = 10_000;
+    String skew = "zipfian";
+    double zipfianTheta = 0.99;
+    Map<Operation, Integer> mix = parseMix("create=10,get=60,list=15,update=10,delete=5");
+    String report = "target/loadgen-report.json";
+    boolean cleanup = true;
+
+    static LoadConfig parse(String[] args) {
+        LoadConfig config = new LoadConfig();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq < 0) {
+                throw new IllegalArgumentException("Expected key=value but got: " + arg);
+            }
+            String key = arg.substring(0, eq).trim();
+            String value = arg.substring(eq + 1).trim();
+            switch (key) {
+                case "baseUrl" -> config.baseUrl = value;
+                case "duration" -> config.duration = Duration.parse("PT" + value.toUpperCase());
+                case "warmup" -> config.warmup = Duration.parse("PT" + value.toUpperCase());
+                case "concurrency" -> config.concurrency = Integer.parseInt(value);
+                case "rate" -> config.rate = Integer.parseInt(value);
+                case "keys" -> config.keys = Integer.parseInt(value);
+                case "skew" -> config.skew = value;
+                case "theta" -> config.zipfianTheta = Double.parseDouble(value);
+                case "mix" -> config.mix = parseMix(value);
+                case "report" -> config.report = value;
+                case "cleanup" -> config.cleanup = Boolean.parseBoolean(value);
+                default -> throw new IllegalArgumentException("Unknown setting: " + key);
+            }
+        }
+        if (!config.skew.equals("uniform") && !config.skew.equals("zipfian")) {
+            throw new IllegalArgumentException("skew must be uniform or zipfian: " + config.skew);
+        }
+        if (config.concurrency < 1 || config.rate < 1 || config.keys < 1) {
+            throw new IllegalArgumentException("concurrency, rate and keys must be positive");
+        }
+        return config;
+    }
+
+    // e.g. "create=10,get=60,list=15,update=10,delete=5"; weights are relative
+    static Map<Operation, Integer> parseMix(String spec) {
+        Map<Operation, Integer> mix = new LinkedHashMap<>();
+        for (String part : spec.split(",")) {
+            String[] kv = part.split("=");
+            int weight = Integer.parseInt(kv[1].trim());
+            if (weight < 0) {
+                throw new IllegalArgumentException("Negative weight in mix: " + part);
+            }
+            mix.put(Operation.valueOf(kv[0].trim().toUpperCase()), weight);
+        }
+        if (mix.values().stream().mapToInt(Integer::intValue).sum() == 0) {
+            throw new IllegalArgumentException("Mix must have a positive total weight: " + spec);
+        }
+        return mix;
+    }
+
+    enum Operation {
+        CREATE, GET, LIST, UPDATE, DELETE
+    }
+}
@@ -0,0 +1,347 @@
+package org.example.loadgen;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.example.loadgen.LoadConfig.Operation;
+import org.example.util.CursorCodec;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongConsumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Open-model HTTP load generator for {@code /api/users}.
+ *
+ * <p>Seeds {@code keys} users through the batch endpoint, then runs {@code concurrency}
+ * workers that together issue {@code rate} requests per second in the configured mix.
+ * Every request has a scheduled start time and its latency is measured from that time,
+ * not from when it was actually sent, which corrects for coordinated omission: when
+ * the server stalls, the requests that should have been sent meanwhile are charged the
+ * wait. Latencies go into per-operation HdrHistograms; p50/p90/p99/p99.9, throughput
+ * and error counts are printed and written as JSON to {@code report}.
+ *
+ * <p>Usage: {@code mvn -Ploadgen test-compile exec:exec -Dloadgen.args="rate=2000 duration=2m skew=zipfian"}
+ */
+public final class LoadGenerator {
+
+    private static final int SEED_CHUNK = 1_000;
+    private static final int DELETE_CHUNK = 200;
+    private static final int PAGE_SIZE = 50;
+
+    private final LoadConfig config;
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+    private final String runId = Long.toString(System.currentTimeMillis(), 36);
+
+    private final Map<Operation, Recorder> recorders = new EnumMap<>(Operation.class);
+    private final Map<Operation, LongAdder> errors = new EnumMap<>(Operation.class);
+    private final Queue<Long> createdIds = new ConcurrentLinkedQueue<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final Operation[] operationByTicket;
+    private final ZipfianGenerator zipfian;
+
+    private long[] ids;
+    private String[] emails;
+
+    private LoadGenerator(LoadConfig config) {
+        this.config = config;
+        for (Operation operation : Operation.values()) {
+            recorders.put(operation, new Recorder(3));
+            errors.put(operation, new LongAdder());
+        }
+        List<Operation> tickets = new ArrayList<>();
+        config.mix.forEach((operation, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                tickets.add(operation);
+            }
+        });
+        this.operationByTicket = tickets.toArray(new Operation[0]);
+        this.zipfian = config.skew.equals("zipfian") ? new ZipfianGenerator(config.keys, config.zipfianTheta) : null;
+    }
+
+    public static void main(String[] args) throws Exception {
+        new LoadGenerator(LoadConfig.parse(args)).run();
+    }
+
+    private void run() throws Exception {
+        System.out.printf("Seeding %d users at %s%n", config.keys, config.baseUrl);
+        seed();
+
+        long intervalNanos = TimeUnit.SECONDS.toNanos(config.concurrency) / config.rate;
+        long startNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(100);
+        long measureFromNanos = startNanos + config.warmup.toNanos();
+        long endNanos = measureFromNanos + config.duration.toNanos();
+        System.out.printf("Running %s warmup + %s at %d req/s with %d workers, mix %s, %s keys%n",
+                config.warmup, config.duration, config.rate, config.concurrency, config.mix, config.skew);
+
+        List<Thread> workers = new ArrayList<>();
+        for (int w = 0; w < config.concurrency; w++) {
+            // Stagger workers so the aggregate schedule is evenly spaced
+            long firstNanos = startNanos + intervalNanos * w / config.concurrency;
+            Thread worker = new Thread(() -> work(firstNanos, intervalNanos, measureFromNanos, endNanos),
+                    "loadgen-" + w);
+            worker.start();
+            workers.add(worker);
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        // Achieved throughput: requests scheduled in the window over the time it took to finish them
+        Duration measured = Duration.ofNanos(Math.max(System.nanoTime(), endNanos) - measureFromNanos);
+        Map<String, Object> report = report(measured);
+        Path reportPath = Path.of(config.report);
+        if (reportPath.getParent() != null) {
+            Files.createDirectories(reportPath.getParent());
+        }
+        objectMapper.writeValue(reportPath.toFile(), report);
+        System.out.println("Report written to " + reportPath.toAbsolutePath());
+
+        if (config.cleanup) {
+            cleanUp();
+        }
+    }
+
+    private void work(long firstNanos, long intervalNanos, long measureFromNanos, long endNanos) {
+        try {
+            runSchedule(firstNanos, intervalNanos, endNanos, System::nanoTime, LockSupport::parkNanos,
+                    this::sendNext, (scheduled, outcome, latencyNanos) -> {
+                        if (scheduled >= measureFromNanos) {
+                            recorders.get(outcome.performed()).recordValue(latencyNanos);
+                            if (!outcome.ok()) {
+                                errors.get(outcome.performed()).increment();
+                            }
+                        }
+                    });
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Runs one worker's share of the schedule: request {@code k} is due at
+     * {@code firstNanos + k * intervalNanos} whether or not the previous one has finished,
+     * and its latency runs from that due time. A request that stalls the worker is thus
+     * charged to every request that should have started meanwhile, instead of silently
+     * pushing their start times back.
+     */
+    static <R> void runSchedule(long firstNanos, long intervalNanos, long endNanos, LongSupplier nanoTime,
+                                LongConsumer park, Request<R> request, LatencySink<R> sink)
+            throws InterruptedException {
+        for (long scheduled = firstNanos; scheduled < endNanos; scheduled += intervalNanos) {
+            long now;
+            while ((now = nanoTime.getAsLong()) < scheduled) {
+                park.accept(scheduled - now);
+            }
+            R result = request.send();
+            sink.record(scheduled, result, nanoTime.getAsLong() - scheduled);
+        }
+    }
+
+    @FunctionalInterface
+    interface Request<R> {
+        R send() throws InterruptedException;
+    }
+
+    @FunctionalInterface
+    interface LatencySink<R> {
+        void record(long scheduledNanos, R result, long latencyNanos);
+    }
+
+    private record Outcome(Operation performed, boolean ok) {
+    }
+
+    private Outcome sendNext() throws InterruptedException {
+        Operation operation = operationByTicket[ThreadLocalRandom.current().nextInt(operationByTicket.length)];
+        try {
+            return switch (operation) {
+                case CREATE -> new Outcome(operation, create());
+                case GET -> new Outcome(operation, get());
+                case LIST -> new Outcome(operation, list());
+                case UPDATE -> new Outcome(operation, update());
+                case DELETE -> {
+                    Long id = createdIds.poll();
+                    // Only users created by this run are deleted, keeping the seeded keyspace intact
+                    yield id == null ? new Outcome(Operation.CREATE, create()) : new Outcome(operation, delete(id));
+                }
+            };
+        } catch (IOException e) {
+            return new Outcome(operation, false);
+        }
+    }
+
+    private boolean create() throws IOException, InterruptedException {
+        long n = sequence.incrementAndGet();
+        String body = userJson("Load User " + n, "loadgen-" + runId + "-c" + n + "@example.com", (int) (n % 90));
+        HttpResponse<String> response = send(HttpRequest.newBuilder(URI.create(config.baseUrl))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body)));
+        if (response.statusCode() != 201) {
+            return false;
+        }
+        createdIds.add(objectMapper.readTree(response.body()).get("id").asLong());
+        return true;
+    }
+
+    private boolean get() throws IOException, InterruptedException {
+        return send(HttpRequest.newBuilder(URI.create(config.baseUrl + "/" + ids[pickKey()])).GET())
+                .statusCode() == 200;
+    }
+
+    private boolean list() throws IOException, InterruptedException {
+        String cursor = CursorCodec.encode(ids[pickKey()] - 1);
+        return send(HttpRequest.newBuilder(URI.create(
+                config.baseUrl + "?cursor=" + cursor + "&limit=" + PAGE_SIZE)).GET()).statusCode() == 200;
+    }
+
+    private boolean update() throws IOException, InterruptedException {
+        int key = pickKey();
+        String body = userJson("Updated " + sequence.incrementAndGet(), emails[key],
+                ThreadLocalRandom.current().nextInt(90));
+        return send(HttpRequest.newBuilder(URI.create(config.baseUrl + "/" + ids[key]))
+                .header("Content-Type", "application/json")
+                .PUT(HttpRequest.BodyPublishers.ofString(body))).statusCode() == 200;
+    }
+
+    private boolean delete(long id) throws IOException, InterruptedException {
+        return send(HttpRequest.newBuilder(URI.create(config.baseUrl + "/" + id)).DELETE()).statusCode() == 204;
+    }
+
+    private int pickKey() {
+        return zipfian != null ? (int) zipfian.next() : ThreadLocalRandom.current().nextInt(config.keys);
+    }
+
+    private void seed() throws IOException, InterruptedException {
+        ids = new long[config.keys];
+        emails = new String[config.keys];
+        for (int from = 0; from < config.keys; from += SEED_CHUNK) {
+            int to = Math.min(config.keys, from + SEED_CHUNK);
+            List<Map<String, Object>> batch = new ArrayList<>(to - from);
+            for (int i = from; i < to; i++) {
+                emails[i] = "loadgen-" + runId + "-" + i + "@example.com";
+                batch.add(Map.of("name", "Seed User " + i, "email", emails[i], "age", i % 90));
+            }
+            HttpResponse<String> response = send(HttpRequest.newBuilder(URI.create(config.baseUrl + "/batch"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(batch))));
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("Seeding failed with HTTP " + response.statusCode() + ": " + response.body());
+            }
+            for (JsonNode result : objectMapper.readTree(response.body()).get("results")) {
+                if (!"CREATED".equals(result.get("status").asText())) {
+                    throw new IllegalStateException("Seeding rejected a user: " + result);
+                }
+                ids[from + result.get("index").asInt()] = result.get("user").get("id").asLong();
+            }
+        }
+    }
+
+    private void cleanUp() throws IOException, InterruptedException {
+        List<Long> all = new ArrayList<>(createdIds);
+        for (long id : ids) {
+            all.add(id);
+        }
+        for (int from = 0; from < all.size(); from += DELETE_CHUNK) {
+            StringBuilder query = new StringBuilder();
+            for (Long id : all.subList(from, Math.min(all.size(), from + DELETE_CHUNK))) {
+                query.append(query.isEmpty() ? "" : ",").append(id);
+            }
+            send(HttpRequest.newBuilder(URI.create(config.baseUrl + "?ids=" + query)).DELETE());
+        }
+        System.out.printf("Removed %d users created by this run%n", all.size());
+    }
+
+    private Map<String, Object> report(Duration measured) {
+        double seconds = measured.toNanos() / 1e9;
+        Map<String, Object> endpoints = new LinkedHashMap<>();
+        Histogram total = new Histogram(3);
+        long totalErrors = 0;
+
+        System.out.printf("%-8s %10s %8s %10s %9s %9s %9s %9s %9s%n",
+                "op", "count", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (Operation operation : Operation.values()) {
+            Histogram histogram = recorders.get(operation).getIntervalHistogram();
+            long errorCount = errors.get(operation).sum();
+            if (histogram.getTotalCount() == 0) {
+                continue;
+            }
+            total.add(histogram);
+            totalErrors += errorCount;
+            String name = operation.name().toLowerCase();
+            endpoints.put(name, summary(name, histogram, errorCount, seconds));
+        }
+        Map<String, Object> overall = summary("total", total, totalErrors, seconds);
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("timestamp", Instant.now().toString());
+        report.put("config", Map.of(
+                "baseUrl", config.baseUrl,
+                "durationSeconds", config.duration.toSeconds(),
+                "measuredSeconds", seconds,
+                "warmupSeconds", config.warmup.toSeconds(),
+                "targetRate", config.rate,
+                "concurrency", config.concurrency,
+                "keys", config.keys,
+                "skew", config.skew,
+                "mix", config.mix));
+        report.put("endpoints", endpoints);
+        report.put("total", overall);
+        return report;
+    }
+
+    private Map<String, Object> summary(String name, Histogram histogram, long errorCount, double seconds) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("count", histogram.getTotalCount());
+        summary.put("errors", errorCount);
+        summary.put("throughput", histogram.getTotalCount() / seconds);
+        summary.put("meanMs", histogram.getMean() / 1e6);
+        summary.put("p50Ms", millis(histogram, 50));
+        summary.put("p90Ms", millis(histogram, 90));
+        summary.put("p99Ms", millis(histogram, 99));
+        summary.put("p999Ms", millis(histogram, 99.9));
+        summary.put("maxMs", histogram.getMaxValue() / 1e6);
+        System.out.printf("%-8s %10d %8d %10.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                name, histogram.getTotalCount(), errorCount,
+                histogram.getTotalCount() / seconds, millis(histogram, 50), millis(histogram, 90),
+                millis(histogram, 99), millis(histogram, 99.9), histogram.getMaxValue() / 1e6);
+        return summary;
+    }
+
+    private static double millis(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / 1e6;
+    }
+
+    private HttpResponse<String> send(HttpRequest.Builder request) throws IOException, InterruptedException {
+        return client.send(request.timeout(Duration.ofSeconds(30)).build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private String userJson(String name, String email, int age) throws IOException {
+        return objectMapper.writeValueAsString(Map.of("name", name, "email", email, "age", age));
+    }
+}
@@ -0,0 +1,66 @@
+package org.example.loadgen;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Zipf-distributed keys in {@code [0, items)}, using the rejection-free method of Gray
+ * et al. ("Quickly Generating Billion-Record Synthetic Databases") as popularised by YCSB.
+ * {@link #nextRank()} returns the raw rank, 0 being the most popular; {@link #next()}
+ * scatters ranks over the key space with an FNV-1a hash, like YCSB's
+ * ScrambledZipfianGenerator, so the hot keys are not the oldest, adjacent rows that
+ * share index and heap pages. Thread-safe after construction.
+ */
+final class ZipfianGenerator {
+
+    private final long items;
+    private final double theta;
+    private final double alpha;
+    private final double zetaN;
+    private final double eta;
+
+    ZipfianGenerator(long items, double theta) {
+        if (theta <= 0 || theta >= 1) {
+            throw new IllegalArgumentException("theta must be in (0, 1): " + theta);
+        }
+        this.items = items;
+        this.theta = theta;
+        this.alpha = 1.0 / (1.0 - theta);
+        this.zetaN = zeta(items, theta);
+        double zeta2 = zeta(2, theta);
+        this.eta = (1 - Math.pow(2.0 / items, 1 - theta)) / (1 - zeta2 / zetaN);
+    }
+
+    long next() {
+        return Math.floorMod(fnv1a64(nextRank()), items);
+    }
+
+    long nextRank() {
+        double u = ThreadLocalRandom.current().nextDouble();
+        double uz = u * zetaN;
+        if (uz < 1.0) {
+            return 0;
+        }
+        if (uz < 1.0 + Math.pow(0.5, theta)) {
+            return Math.min(1, items - 1);
+        }
+        return Math.min(items - 1, (long) (items * Math.pow(eta * u - eta + 1, alpha)));
+    }
+
+    // FNV-1a over the eight bytes of the value, low byte first
+    static long fnv1a64(long value) {
+        long hash = 0xCBF29CE484222325L;
+        for (int i = 0; i < Long.BYTES; i++) {
+            hash ^= (value >>> (i * 8)) & 0xFF;
+            hash *= 0x100000001B3L;
+        }
+        return hash;
+    }
+
+    private static double zeta(long n, double theta) {
+        double sum = 0;
+        for (long i = 1; i <= n; i++) {
+            sum += 1 / Math.pow(i, theta);
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,73 @@
+package org.example.loadgen;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class LoadGeneratorTest {
+
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Test
+    void runSchedule_ShouldChargeAStallToTheRequestsQueuedBehindIt() throws InterruptedException {
+        // Arrange: a request every 2ms, each served in 1ms except the second, which stalls for 10ms
+        long[] clock = {0};
+        List<Long> parks = new ArrayList<>();
+        List<Long> starts = new ArrayList<>();
+        List<Long> scheduled = new ArrayList<>();
+        List<Long> latencies = new ArrayList<>();
+
+        // Act
+        LoadGenerator.runSchedule(0, 2 * MS, 20 * MS, () -> clock[0],
+                nanos -> {
+                    parks.add(nanos);
+                    clock[0] += nanos;
+                },
+                () -> {
+                    starts.add(clock[0]);
+                    clock[0] += starts.size() == 2 ? 10 * MS : MS;
+                    return null;
+                },
+                (scheduledNanos, result, latencyNanos) -> {
+                    scheduled.add(scheduledNanos);
+                    latencies.add(latencyNanos);
+                });
+
+        // Assert: start times stay on the fixed schedule even while the worker is behind
+        assertEquals(List.of(0L, 2 * MS, 4 * MS, 6 * MS, 8 * MS, 10 * MS, 12 * MS, 14 * MS, 16 * MS, 18 * MS),
+                scheduled);
+        // The worker only waits before the stall; afterwards every request is sent late, immediately
+        assertEquals(List.of(MS), parks);
+        assertEquals(List.of(0L, 2 * MS, 12 * MS, 13 * MS, 14 * MS, 15 * MS, 16 * MS, 17 * MS, 18 * MS, 19 * MS),
+                starts);
+        // Latency runs from the scheduled start, so the queued requests carry the stall
+        // instead of reporting 1ms each
+        assertEquals(List.of(MS, 10 * MS, 9 * MS, 8 * MS, 7 * MS, 6 * MS, 5 * MS, 4 * MS, 3 * MS, 2 * MS),
+                latencies);
+    }
+
+    @Test
+    void runSchedule_ShouldWaitForEachScheduledStart_WhenTheServerKeepsUp() throws InterruptedException {
+        // Arrange
+        long[] clock = {MS};
+        List<Long> starts = new ArrayList<>();
+        List<Long> latencies = new ArrayList<>();
+
+        // Act: worker staggered to start at 5ms, requests every 5ms served in 1ms
+        LoadGenerator.runSchedule(5 * MS, 5 * MS, 20 * MS, () -> clock[0], nanos -> clock[0] += nanos,
+                () -> {
+                    starts.add(clock[0]);
+                    clock[0] += MS;
+                    return null;
+                },
+                (scheduledNanos, result, latencyNanos) -> latencies.add(latencyNanos));
+
+        // Assert
+        assertEquals(List.of(5 * MS, 10 * MS, 15 * MS), starts);
+        assertEquals(List.of(MS, MS, MS), latencies);
+    }
+}
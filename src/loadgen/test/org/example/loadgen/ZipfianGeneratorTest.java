@@ -0,0 +1,94 @@
+package org.example.loadgen;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ZipfianGeneratorTest {
+
+    private static final int SAMPLES = 1_000_000;
+
+    @Test
+    void next_ShouldStayWithinTheKeySpace() {
+        for (long items : new long[]{1, 2, 3, 10, 1_000}) {
+            // Arrange
+            ZipfianGenerator generator = new ZipfianGenerator(items, 0.99);
+
+            // Act & Assert
+            for (int i = 0; i < 100_000; i++) {
+                long key = generator.next();
+                long rank = generator.nextRank();
+                assertTrue(key >= 0 && key < items, "key " + key + " outside [0, " + items + ")");
+                assertTrue(rank >= 0 && rank < items, "rank " + rank + " outside [0, " + items + ")");
+            }
+        }
+    }
+
+    @Test
+    void nextRank_ShouldFollowZipfsLaw() {
+        // Arrange
+        int items = 1_000;
+        double theta = 0.99;
+        ZipfianGenerator generator = new ZipfianGenerator(items, theta);
+        double zetaN = IntStream.rangeClosed(1, items).mapToDouble(i -> 1 / Math.pow(i, theta)).sum();
+
+        // Act
+        long[] counts = new long[items];
+        for (int i = 0; i < SAMPLES; i++) {
+            counts[(int) generator.nextRank()]++;
+        }
+
+        // Assert: ranks 0 and 1 are drawn exactly with probability 1 / ((r + 1)^theta * zeta(n));
+        // the method approximates the tail, which only has to keep falling off
+        for (int rank : new int[]{0, 1}) {
+            double expected = SAMPLES / (Math.pow(rank + 1, theta) * zetaN);
+            assertEquals(expected, counts[rank], expected * 0.05, "rank " + rank);
+        }
+        assertTrue(counts[1] > counts[9] && counts[9] > counts[99] && counts[99] > counts[999]);
+        // The hottest 10% of ranks take well over half of the draws
+        long hottest = LongStream.of(counts).limit(items / 10).sum();
+        assertTrue(hottest > SAMPLES * 0.6, "top 10% drew " + hottest);
+    }
+
+    @Test
+    void next_ShouldScatterHotRanksAcrossTheKeySpace() {
+        // Arrange
+        int items = 1_000;
+        ZipfianGenerator generator = new ZipfianGenerator(items, 0.99);
+
+        // Act
+        long[] counts = new long[items];
+        for (int i = 0; i < SAMPLES; i++) {
+            counts[(int) generator.next()]++;
+        }
+
+        // Assert: the skew survives scrambling, but the hottest keys are no longer the lowest ids
+        int hottestKey = hottest(counts);
+        assertEquals(Math.floorMod(ZipfianGenerator.fnv1a64(0), items), hottestKey);
+        assertNotEquals(0, hottestKey);
+        long lowestTenth = LongStream.of(counts).limit(items / 10).sum();
+        assertTrue(lowestTenth < SAMPLES * 0.3, "lowest 10% of keys drew " + lowestTenth);
+    }
+
+    @Test
+    void constructor_ShouldRejectThetaOutsideTheOpenUnitInterval() {
+        assertThrows(IllegalArgumentException.class, () -> new ZipfianGenerator(10, 0));
+        assertThrows(IllegalArgumentException.class, () -> new ZipfianGenerator(10, 1));
+    }
+
+    private static int hottest(long[] counts) {
+        int hottest = 0;
+        for (int i = 1; i < counts.length; i++) {
+            if (counts[i] > counts[hottest]) {
+                hottest = i;
+            }
+        }
+        return hottest;
+    }
+}
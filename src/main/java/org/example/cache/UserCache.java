@@ -0,0 +1,107 @@
+package org.example.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.example.dto.UserDto;
+import org.example.util.SingleFlight;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Bounded read-through cache of {@link UserDto} by id.
+ *
+ * <p>Entries are only ever populated from committed reads and invalidated after
+ * writers commit. A load that overlaps an invalidation finishes before the
+ * invalidation removes it, so a value read before the commit cannot outlive it.
+ *
+ * <p>As a {@link MeterBinder} it publishes the Caffeine statistics as {@code cache.*}
+ * meters tagged {@code cache=users}, plus {@code users.cache.loads.collapsed}.
+ */
+@Component
+public class UserCache implements MeterBinder {
+
+    private final Cache<Long, UserDto> cache;
+    private final SingleFlight<Long, UserDto> loads = new SingleFlight<>();
+
+    public UserCache(@Value("${users.cache.max-size:10000}") long maxSize,
+                     @Value("${users.cache.ttl:5m}") Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Returns the cached entry or loads it. Concurrent misses for the same id share
+     * a single load, including loads that fail (e.g. unknown ids), which Caffeine
+     * alone would retry once per waiting caller.
+     */
+    public UserDto get(Long id, Function<Long, UserDto> loader) {
+        UserDto cached = cache.getIfPresent(id);
+        if (cached != null) {
+            return cached;
+        }
+        // compute() still serializes the load against invalidate() for this key
+        return loads.execute(id, () -> cache.asMap().compute(id,
+                (key, current) -> current != null ? current : loader.apply(key)));
+    }
+
+    /**
+     * Returns the cached entries among {@code ids} without loading the rest. Bulk
+     * reads deliberately do not populate the cache: unlike {@link #get}, a bulk
+     * load is not serialized against invalidation.
+     */
+    public Map<Long, UserDto> getAllPresent(Iterable<Long> ids) {
+        return cache.getAllPresent(ids);
+    }
+
+    /**
+     * Invalidates {@code id} once the current transaction commits, or right away
+     * when called outside a transaction. Nothing happens on rollback.
+     */
+    public void evictAfterCommit(Long id) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            cache.invalidate(id);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                cache.invalidate(id);
+            }
+        });
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    /** Number of lookups that were answered by another caller's in-flight load. */
+    public long collapsedLoads() {
+        return loads.collapsed();
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "users");
+        FunctionCounter.builder("users.cache.loads.collapsed", loads, SingleFlight::collapsed)
+                .description("Cache misses answered by another caller's in-flight load")
+                .register(registry);
+    }
+}
@@ -0,0 +1,33 @@
+package org.example.config;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+import org.example.util.HibernateUtil;
+import org.example.util.JdbcUtil;
+import org.hibernate.SessionFactory;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+/**
+ * Points {@link HibernateUtil} at the SessionFactory behind Spring's
+ * EntityManagerFactory, and {@link JdbcUtil} at Spring's DataSource, so the
+ * {@code UserDao} engines and {@code UserRepository} share one persistence
+ * bootstrap and one connection pool inside the application.
+ */
+@Component
+public class HibernateUtilBridge {
+
+    public HibernateUtilBridge(EntityManagerFactory entityManagerFactory, DataSource dataSource) {
+        // Resolved on first DAO use; with deferred bootstrap this waits for the
+        // background build instead of blocking startup
+        HibernateUtil.useSharedSessionFactory(() -> entityManagerFactory.unwrap(SessionFactory.class));
+        JdbcUtil.useSharedDataSource(dataSource);
+    }
+
+    @PreDestroy
+    public void release() {
+        HibernateUtil.releaseSharedSessionFactory();
+        JdbcUtil.shutdown();
+    }
+}
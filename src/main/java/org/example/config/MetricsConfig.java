@@ -0,0 +1,33 @@
+package org.example.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.example.service.UserService;
+import org.example.util.SingleFlight;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Application meters on top of what Spring Boot records by itself
+ * ({@code http.server.requests}, {@code spring.data.repository.invocations},
+ * {@code hikaricp.*}). Everything is scraped from {@code /actuator/prometheus}.
+ */
+@Configuration
+public class MetricsConfig {
+
+    /** Backs {@code @Timed} on {@link UserService}: {@code user.service} timers by method and exception. */
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry registry) {
+        return new TimedAspect(registry);
+    }
+
+    @Bean
+    public MeterBinder userServiceMetrics(UserService userService) {
+        return registry -> FunctionCounter.builder("users.lookups.by-email.collapsed",
+                        userService.getByEmailLookups(), SingleFlight::collapsed)
+                .description("Lookups by email answered by another caller's in-flight query")
+                .register(registry);
+    }
+}
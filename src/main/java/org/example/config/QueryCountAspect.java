@@ -0,0 +1,56 @@
+package org.example.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.example.util.QueryCounter;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Records the SQL each {@code UserService} method issues as {@code user.service.statements}
+ * and {@code user.service.rows} summaries tagged by method, so a method whose statement
+ * count grows shows up on the dashboard as well as in the query-budget tests.
+ */
+@Aspect
+@Component
+public class QueryCountAspect {
+
+    private final MeterRegistry registry;
+    private final Map<String, DistributionSummary[]> summaries = new ConcurrentHashMap<>();
+
+    public QueryCountAspect(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Around("execution(public * org.example.service.UserService.*(..))")
+    public Object count(ProceedingJoinPoint joinPoint) throws Throwable {
+        QueryCounter.Stats before = QueryCounter.snapshot();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            QueryCounter.Stats used = QueryCounter.snapshot().minus(before);
+            DistributionSummary[] meters = summaries.computeIfAbsent(joinPoint.getSignature().getName(), this::register);
+            meters[0].record(used.statements());
+            meters[1].record(used.rows());
+        }
+    }
+
+    private DistributionSummary[] register(String method) {
+        return new DistributionSummary[]{
+                DistributionSummary.builder("user.service.statements")
+                        .description("SQL statements issued per UserService call")
+                        .tag("method", method)
+                        .register(registry),
+                DistributionSummary.builder("user.service.rows")
+                        .description("Rows read or affected per UserService call")
+                        .baseUnit("rows")
+                        .tag("method", method)
+                        .register(registry)
+        };
+    }
+}
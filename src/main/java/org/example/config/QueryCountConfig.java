@@ -0,0 +1,40 @@
+package org.example.config;
+
+import org.example.util.CountingDataSource;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Routes the application's DataSource through {@link CountingDataSource}, so JPA,
+ * JdbcTemplate and the shared DAO engines all report to {@code QueryCounter} and log
+ * statements slower than {@code users.slow-query.threshold}. Disable with
+ * {@code users.query-count.enabled=false}; rows read are only counted under
+ * {@code --debug} or with {@code users.query-count.read-rows=true}.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "users.query-count.enabled", havingValue = "true", matchIfMissing = true)
+public class QueryCountConfig {
+
+    @Bean
+    static BeanPostProcessor countingDataSourcePostProcessor(Environment environment) {
+        Duration slowQueryThreshold = environment.getProperty("users.slow-query.threshold", Duration.class,
+                CountingDataSource.DEFAULT_SLOW_QUERY_THRESHOLD);
+        String debug = environment.getProperty("debug");
+        boolean countReadRows = environment.getProperty(CountingDataSource.COUNT_READ_ROWS_PROPERTY, Boolean.class,
+                debug != null && !debug.equalsIgnoreCase("false"));
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return bean instanceof DataSource dataSource && !(bean instanceof CountingDataSource)
+                        ? new CountingDataSource(dataSource, slowQueryThreshold, countReadRows)
+                        : bean;
+            }
+        };
+    }
+}
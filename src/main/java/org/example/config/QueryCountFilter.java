@@ -0,0 +1,76 @@
+package org.example.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.example.util.QueryCounter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+
+/**
+ * Debug aid: adds {@code X-Query-Count} (SQL statements) and {@code X-Query-Stats}
+ * (by kind, rows and round-trips) to every response, counting the SQL the request
+ * thread issued before the body started. Enable with {@code users.query-count.header=true}.
+ */
+@Component
+@ConditionalOnProperty(name = "users.query-count.header", havingValue = "true")
+public class QueryCountFilter extends OncePerRequestFilter {
+
+    public static final String COUNT_HEADER = "X-Query-Count";
+    public static final String STATS_HEADER = "X-Query-Stats";
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        QueryCountResponse counted = new QueryCountResponse(response, QueryCounter.snapshot());
+        chain.doFilter(request, counted);
+        // Bodiless responses (e.g. 204) never asked for the output
+        counted.addHeaders();
+    }
+
+    // Headers must go out before the body, so they are added when the body is first requested
+    private static final class QueryCountResponse extends HttpServletResponseWrapper {
+        private final QueryCounter.Stats start;
+        private boolean added;
+
+        QueryCountResponse(HttpServletResponse response, QueryCounter.Stats start) {
+            super(response);
+            this.start = start;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            addHeaders();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            addHeaders();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            addHeaders();
+            super.flushBuffer();
+        }
+
+        void addHeaders() {
+            if (added || isCommitted()) {
+                return;
+            }
+            added = true;
+            QueryCounter.Stats used = QueryCounter.snapshot().minus(start);
+            setHeader(COUNT_HEADER, Long.toString(used.statements()));
+            setHeader(STATS_HEADER, used.toString());
+        }
+    }
+}
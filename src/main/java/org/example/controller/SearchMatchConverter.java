@@ -0,0 +1,15 @@
+package org.example.controller;
+
+import org.example.dto.UserSearchRequest;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.stereotype.Component;
+
+/** Binds {@code match=prefix} as readily as {@code match=PREFIX}, like the export {@code format}. */
+@Component
+public class SearchMatchConverter implements Converter<String, UserSearchRequest.Match> {
+
+    @Override
+    public UserSearchRequest.Match convert(String source) {
+        return UserSearchRequest.Match.from(source);
+    }
+}
@@ -1,9 +1,27 @@
 package org.example.controller;
 
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.example.dto.BatchCreateResponse;
+import org.example.dto.BulkDeleteResponse;
 import org.example.dto.CreateUserRequest;
+import org.example.dto.ImportReport;
+import org.example.dto.PatchUserRequest;
 import org.example.dto.UpdateUserRequest;
 import org.example.dto.UserDto;
+import org.example.dto.UserField;
+import org.example.dto.UserLookupResponse;
+import org.example.dto.UserPage;
+import org.example.dto.UserSearchRequest;
+import org.example.dto.UserSuggestion;
 import org.example.service.UserService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -12,48 +30,194 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 
 import jakarta.validation.Valid;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/users")
 public class UserController {
 
     private final UserService userService;
+    private final ObjectMapper objectMapper;
+    // Writes fields= responses: UserDto goes through a property filter that keeps the selected
+    // attributes, null or not. One writer per selection, at most 2^5 of them
+    private final ObjectMapper narrowedMapper;
+    private final Map<Set<UserField>, ObjectWriter> narrowedWriters = new ConcurrentHashMap<>();
+    private final int defaultPageSize;
+    private final int maxPageSize;
+    private final int maxBatchSize;
+    private final int maxSuggestions;
 
-    public UserController(UserService userService) {
+    public UserController(UserService userService,
+                          ObjectMapper objectMapper,
+                          @Value("${users.page.default-size:50}") int defaultPageSize,
+                          @Value("${users.page.max-size:500}") int maxPageSize,
+                          @Value("${users.batch.max-size:10000}") int maxBatchSize,
+                          @Value("${users.suggest.max-limit:50}") int maxSuggestions) {
         this.userService = userService;
+        this.objectMapper = objectMapper;
+        this.narrowedMapper = objectMapper.copy().addMixIn(UserDto.class, SelectedFields.class);
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
+        this.maxBatchSize = maxBatchSize;
+        this.maxSuggestions = maxSuggestions;
     }
 
     @PostMapping
     public ResponseEntity<UserDto> createUser(@Valid @RequestBody CreateUserRequest request) {
         UserDto userDto = userService.createUser(request);
-        return new ResponseEntity<>(userDto, HttpStatus.CREATED);
+        return withETag(ResponseEntity.status(HttpStatus.CREATED), userDto).body(userDto);
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<BatchCreateResponse> createUsers(@RequestBody List<CreateUserRequest> requests) {
+        if (requests.isEmpty()) {
+            throw new IllegalArgumentException("Batch must contain at least one user");
+        }
+        if (requests.size() > maxBatchSize) {
+            throw new IllegalArgumentException("Batch size " + requests.size() + " exceeds limit of " + maxBatchSize);
+        }
+        BatchCreateResponse response = userService.createUsers(requests);
+        return ResponseEntity.ok(response);
+    }
+
+    @PostMapping(value = "/import", consumes = "text/csv")
+    public ResponseEntity<ImportReport> importUsers(InputStream body) throws IOException {
+        // Read the raw request stream so the upload is never buffered in memory
+        try (Reader csv = new InputStreamReader(body, StandardCharsets.UTF_8)) {
+            ImportReport report = userService.importUsers(csv);
+            return ResponseEntity.ok(report);
+        }
+    }
+
+    // Single users come whole from the cache, so fields= only narrows the JSON; the ETag
+    // still reflects the full row's version
     @GetMapping("/{id}")
-    public ResponseEntity<UserDto> getUserById(@PathVariable Long id) {
+    public ResponseEntity<?> getUserById(
+            @PathVariable Long id,
+            @RequestParam(required = false) String fields) throws IOException {
         UserDto userDto = userService.getUserById(id);
-        return ResponseEntity.ok(userDto);
+        if (fields == null) {
+            return withETag(ResponseEntity.ok(), userDto).body(userDto);
+        }
+        byte[] selected = narrowed(userDto, UserField.parse(fields));
+        return withETag(ResponseEntity.ok(), userDto).contentType(MediaType.APPLICATION_JSON).body(selected);
+    }
+
+    @GetMapping("/by-email")
+    public ResponseEntity<UserDto> getUserByEmail(@RequestParam String email) {
+        UserDto userDto = userService.getUserByEmail(email);
+        return withETag(ResponseEntity.ok(), userDto).body(userDto);
     }
 
     @GetMapping
-    public ResponseEntity<List<UserDto>> getAllUsers() {
-        List<UserDto> users = userService.getAllUsers();
-        return ResponseEntity.ok(users);
+    public ResponseEntity<?> getUsers(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String fields) throws IOException {
+        int pageSize = limit == null ? defaultPageSize : Math.min(limit, maxPageSize);
+        if (fields == null) {
+            return ResponseEntity.ok(userService.getUsers(cursor, pageSize));
+        }
+        Set<UserField> selection = UserField.parse(fields);
+        byte[] page = narrowed(userService.getUsers(cursor, pageSize, selection), selection);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(page);
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<UserPage> searchUsers(
+            UserSearchRequest criteria,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        int pageSize = limit == null ? defaultPageSize : Math.min(limit, maxPageSize);
+        UserPage page = userService.searchUsers(criteria, cursor, pageSize);
+        return ResponseEntity.ok(page);
+    }
+
+    @GetMapping("/suggest")
+    public ResponseEntity<List<UserSuggestion>> suggestUsers(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "10") int limit) {
+        List<UserSuggestion> suggestions = userService.suggestUsers(q, Math.min(limit, maxSuggestions));
+        return ResponseEntity.ok(suggestions);
+    }
+
+    @GetMapping(params = "ids")
+    public ResponseEntity<UserLookupResponse> getUsersByIds(@RequestParam List<Long> ids) {
+        checkIdCount(ids);
+        UserLookupResponse response = userService.getUsersByIds(ids);
+        return ResponseEntity.ok(response);
+    }
+
+    @PostMapping("/lookup")
+    public ResponseEntity<UserLookupResponse> lookupUsers(@RequestBody List<Long> ids) {
+        checkIdCount(ids);
+        UserLookupResponse response = userService.getUsersByIds(ids);
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportUsers(
+            @RequestParam(defaultValue = "ndjson") String format) {
+        UserExportFormat exportFormat = UserExportFormat.from(format);
+        StreamingResponseBody body = out -> {
+            UserExportWriter writer = new UserExportWriter(out, exportFormat, objectMapper);
+            userService.exportUsers(writer);
+            writer.finish();
+        };
+        return ResponseEntity.ok()
+                .contentType(exportFormat.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"users." + exportFormat.getFileExtension() + "\"")
+                .body(body);
     }
 
     @PutMapping("/{id}")
     public ResponseEntity<UserDto> updateUser(
             @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @Valid @RequestBody UpdateUserRequest request) {
-        UserDto userDto = userService.updateUser(id, request);
-        return ResponseEntity.ok(userDto);
+        UserDto userDto = userService.updateUser(id, request, parseIfMatch(ifMatch));
+        return withETag(ResponseEntity.ok(), userDto).body(userDto);
+    }
+
+    @PatchMapping(value = "/{id}", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<UserDto> patchUser(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @Valid @RequestBody PatchUserRequest request) {
+        UserDto userDto = userService.patchUser(id, request, parseIfMatch(ifMatch));
+        return withETag(ResponseEntity.ok(), userDto).body(userDto);
+    }
+
+    // RFC 7396: null removes a member, but every user field is mandatory
+    @PatchMapping(value = "/{id}", consumes = "application/merge-patch+json")
+    public ResponseEntity<UserDto> mergePatchUser(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @Valid @RequestBody PatchUserRequest request) {
+        if (request.nulledField() != null) {
+            throw new IllegalArgumentException("Merge patch cannot remove mandatory field: " + request.nulledField());
+        }
+        return patchUser(id, ifMatch, request);
     }
 
     @DeleteMapping("/{id}")
@@ -62,8 +226,73 @@ public class UserController {
         return ResponseEntity.noContent().build();
     }
 
+    @DeleteMapping
+    public ResponseEntity<BulkDeleteResponse> deleteUsers(@RequestParam List<Long> ids) {
+        checkIdCount(ids);
+        BulkDeleteResponse response = userService.deleteUsers(ids);
+        return ResponseEntity.ok(response);
+    }
+
     @ExceptionHandler(IllegalArgumentException.class)
     public ResponseEntity<String> handleIllegalArgumentException(IllegalArgumentException ex) {
         return ResponseEntity.badRequest().body(ex.getMessage());
     }
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<String> handleOptimisticLockingFailure(OptimisticLockingFailureException ex) {
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(ex.getMessage());
+    }
+
+    private void checkIdCount(List<Long> ids) {
+        if (ids.isEmpty()) {
+            throw new IllegalArgumentException("At least one id is required");
+        }
+        if (ids.size() > maxBatchSize) {
+            throw new IllegalArgumentException("Batch size " + ids.size() + " exceeds limit of " + maxBatchSize);
+        }
+        if (ids.contains(null)) {
+            throw new IllegalArgumentException("Ids must not be null");
+        }
+    }
+
+    private byte[] narrowed(Object body, Set<UserField> selection) throws IOException {
+        return narrowedWriters.computeIfAbsent(selection, this::narrowedWriter).writeValueAsBytes(body);
+    }
+
+    private ObjectWriter narrowedWriter(Set<UserField> selection) {
+        Set<String> properties = selection.stream().map(UserField::getProperty).collect(Collectors.toSet());
+        return narrowedMapper.writer(new SimpleFilterProvider()
+                .addFilter(SelectedFields.FILTER, SimpleBeanPropertyFilter.filterOutAllExcept(properties)));
+    }
+
+    @JsonFilter(SelectedFields.FILTER)
+    private abstract static class SelectedFields {
+        static final String FILTER = "selectedFields";
+    }
+
+    private static ResponseEntity.BodyBuilder withETag(ResponseEntity.BodyBuilder builder, UserDto userDto) {
+        if (userDto.getVersion() != null) {
+            builder.eTag("\"" + userDto.getVersion() + "\"");
+        }
+        return builder;
+    }
+
+    // Accepts the ETags this controller issues ("3", optionally weak); "*" matches any version
+    private static Long parseIfMatch(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.startsWith("W/")) {
+            tag = tag.substring(2);
+        }
+        if (tag.length() >= 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+            tag = tag.substring(1, tag.length() - 1);
+        }
+        try {
+            return Long.parseLong(tag);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid If-Match header: " + ifMatch);
+        }
+    }
 }
@@ -0,0 +1,30 @@
+package org.example.controller;
+
+import org.springframework.http.MediaType;
+
+import java.util.Locale;
+
+public enum UserExportFormat {
+    NDJSON(MediaType.parseMediaType("application/x-ndjson"), "ndjson"),
+    CSV(MediaType.parseMediaType("text/csv;charset=UTF-8"), "csv");
+
+    private final MediaType mediaType;
+    private final String fileExtension;
+
+    UserExportFormat(MediaType mediaType, String fileExtension) {
+        this.mediaType = mediaType;
+        this.fileExtension = fileExtension;
+    }
+
+    public MediaType getMediaType() { return mediaType; }
+
+    public String getFileExtension() { return fileExtension; }
+
+    public static UserExportFormat from(String value) {
+        try {
+            return valueOf(value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unsupported export format: " + value);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package org.example.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.example.dto.UserDto;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+/**
+ * Writes exported rows straight to the response stream. Only one row is held at a
+ * time; output is flushed after the first row and then every {@link #FLUSH_EVERY}
+ * rows so the client starts receiving data immediately.
+ */
+class UserExportWriter implements Consumer<UserDto> {
+
+    private static final int FLUSH_EVERY = 1000;
+    private static final String CSV_HEADER = "id,name,email,age,created_at\n";
+
+    private final UserExportFormat format;
+    private final Writer writer;
+    private final JsonGenerator generator;
+    private final ObjectWriter rowWriter;
+    private long rows;
+
+    UserExportWriter(OutputStream out, UserExportFormat format, ObjectMapper objectMapper) throws IOException {
+        this.format = format;
+        this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        if (format == UserExportFormat.NDJSON) {
+            this.generator = objectMapper.getFactory().createGenerator(writer)
+                    .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            this.rowWriter = objectMapper.writerFor(UserDto.class)
+                    .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        } else {
+            this.generator = null;
+            this.rowWriter = null;
+            writer.write(CSV_HEADER);
+        }
+    }
+
+    @Override
+    public void accept(UserDto user) {
+        try {
+            if (format == UserExportFormat.NDJSON) {
+                rowWriter.writeValue(generator, user);
+                generator.writeRaw('\n');
+            } else {
+                writeCsvRow(user);
+            }
+            rows++;
+            if (rows == 1 || rows % FLUSH_EVERY == 0) {
+                flush();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write exported user " + user.getId(), e);
+        }
+    }
+
+    long finish() throws IOException {
+        flush();
+        return rows;
+    }
+
+    private void flush() throws IOException {
+        if (generator != null) {
+            generator.flush();
+        }
+        writer.flush();
+    }
+
+    private void writeCsvRow(UserDto user) throws IOException {
+        writer.write(String.valueOf(user.getId()));
+        writer.write(',');
+        writeCsvField(user.getName());
+        writer.write(',');
+        writeCsvField(user.getEmail());
+        writer.write(',');
+        if (user.getAge() != null) {
+            writer.write(user.getAge().toString());
+        }
+        writer.write(',');
+        if (user.getCreatedAt() != null) {
+            writer.write(user.getCreatedAt().toString());
+        }
+        writer.write('\n');
+    }
+
+    private void writeCsvField(String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        boolean needsQuoting = value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+        if (!needsQuoting) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
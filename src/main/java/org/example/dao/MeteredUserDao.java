@@ -0,0 +1,127 @@
+package org.example.dao;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.example.model.User;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * {@link UserDao} decorator that records a {@code user.dao} timer per method, tagged
+ * with the engine and the exception type on failure, and a {@code user.dao.rows}
+ * summary of rows returned by the finders.
+ *
+ * <p>Success-path meters are registered up front, so a call costs one clock read
+ * pair and a lock-free record; only failures look meters up by tag.
+ */
+public class MeteredUserDao implements UserDao {
+
+    static final String TIMER = "user.dao";
+    static final String ROWS = "user.dao.rows";
+
+    private final UserDao delegate;
+    private final String engine;
+    private final MeterRegistry registry;
+
+    private final Timer findByIdTimer;
+    private final Timer findAllTimer;
+    private final Timer saveTimer;
+    private final Timer updateTimer;
+    private final Timer deleteTimer;
+    private final Timer findByEmailTimer;
+    private final DistributionSummary findByIdRows;
+    private final DistributionSummary findAllRows;
+    private final DistributionSummary findByEmailRows;
+
+    public MeteredUserDao(UserDao delegate, String engine, MeterRegistry registry) {
+        this.delegate = delegate;
+        this.engine = engine;
+        this.registry = registry;
+        this.findByIdTimer = timer("findById", "none");
+        this.findAllTimer = timer("findAll", "none");
+        this.saveTimer = timer("save", "none");
+        this.updateTimer = timer("update", "none");
+        this.deleteTimer = timer("delete", "none");
+        this.findByEmailTimer = timer("findByEmail", "none");
+        this.findByIdRows = rows("findById");
+        this.findAllRows = rows("findAll");
+        this.findByEmailRows = rows("findByEmail");
+    }
+
+    @Override
+    public Optional<User> findById(Long id) {
+        Optional<User> user = record("findById", findByIdTimer, () -> delegate.findById(id));
+        findByIdRows.record(user.isPresent() ? 1 : 0);
+        return user;
+    }
+
+    @Override
+    public List<User> findAll() {
+        List<User> users = record("findAll", findAllTimer, delegate::findAll);
+        findAllRows.record(users.size());
+        return users;
+    }
+
+    @Override
+    public User save(User user) {
+        return record("save", saveTimer, () -> delegate.save(user));
+    }
+
+    @Override
+    public User update(User user) {
+        return record("update", updateTimer, () -> delegate.update(user));
+    }
+
+    @Override
+    public void delete(Long id) {
+        record("delete", deleteTimer, () -> {
+            delegate.delete(id);
+            return null;
+        });
+    }
+
+    @Override
+    public Optional<User> findByEmail(String email) {
+        Optional<User> user = record("findByEmail", findByEmailTimer, () -> delegate.findByEmail(email));
+        findByEmailRows.record(user.isPresent() ? 1 : 0);
+        return user;
+    }
+
+    private <T> T record(String method, Timer success, Supplier<T> call) {
+        long start = registry.config().clock().monotonicTime();
+        try {
+            T result = call.get();
+            success.record(registry.config().clock().monotonicTime() - start, TimeUnit.NANOSECONDS);
+            return result;
+        } catch (RuntimeException e) {
+            // The engines wrap driver errors; tag the underlying cause, which says what went wrong
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            timer(method, cause.getClass().getSimpleName())
+                    .record(registry.config().clock().monotonicTime() - start, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+    }
+
+    private Timer timer(String method, String exception) {
+        return Timer.builder(TIMER)
+                .description("UserDao call latency")
+                .tag("engine", engine)
+                .tag("method", method)
+                .tag("exception", exception)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    private DistributionSummary rows(String method) {
+        return DistributionSummary.builder(ROWS)
+                .description("Rows returned per UserDao call")
+                .baseUnit("rows")
+                .tag("engine", engine)
+                .tag("method", method)
+                .register(registry);
+    }
+}
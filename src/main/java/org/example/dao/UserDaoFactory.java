@@ -0,0 +1,36 @@
+package org.example.dao;
+
+import io.micrometer.core.instrument.Metrics;
+
+import java.util.Locale;
+
+/**
+ * Picks the {@link UserDao} engine from the {@code user.dao.engine} system property:
+ * {@code hibernate} (default, {@link UserDaoPostgreSQL}), {@code jdbc} ({@link UserDaoJdbc})
+ * or {@code memory} (a new, empty {@link UserDaoInMemory}).
+ *
+ * <p>{@link #create()} wraps the engine in a {@link MeteredUserDao} reporting to the
+ * global Micrometer registry, which the application's registry joins; {@link #create(String)}
+ * returns the bare engine.
+ */
+public final class UserDaoFactory {
+
+    public static final String ENGINE_PROPERTY = "user.dao.engine";
+
+    private UserDaoFactory() {
+    }
+
+    public static UserDao create() {
+        String engine = System.getProperty(ENGINE_PROPERTY, "hibernate");
+        return new MeteredUserDao(create(engine), engine.trim().toLowerCase(Locale.ROOT), Metrics.globalRegistry);
+    }
+
+    public static UserDao create(String engine) {
+        return switch (engine.trim().toLowerCase(Locale.ROOT)) {
+            case "hibernate" -> new UserDaoPostgreSQL();
+            case "jdbc" -> new UserDaoJdbc();
+            case "memory" -> new UserDaoInMemory();
+            default -> throw new IllegalArgumentException("Unknown " + ENGINE_PROPERTY + ": " + engine);
+        };
+    }
+}
@@ -0,0 +1,213 @@
+package org.example.dao;
+
+import org.example.model.User;
+import org.example.util.LongObjectHashMap;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.StampedLock;
+
+import static org.apache.logging.log4j.util.Unbox.box;
+
+/**
+ * {@link UserDao} held entirely in memory, for tests, load benchmarks and read replicas.
+ *
+ * <p>Rows live in {@link LongObjectHashMap}s striped by id, each guarded by its own
+ * {@link StampedLock}, so id lookups take one uncontended read lock and never box.
+ * Email uniqueness is enforced by a concurrent email-to-id index that writers reserve
+ * before touching a stripe. Callers only ever see copies, as with a detached entity,
+ * and the table's constraints (non-null name and email, column lengths, unique email,
+ * optimistic version) are enforced like PostgreSQL would.
+ */
+public class UserDaoInMemory implements UserDao {
+    private static final Logger logger = LogManager.getLogger(UserDaoInMemory.class);
+
+    private static final int STRIPES = 16;
+
+    private final LongObjectHashMap<User>[] rows;
+    private final StampedLock[] locks;
+    private final ConcurrentMap<String, Long> idsByEmail = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+
+    @SuppressWarnings("unchecked")
+    public UserDaoInMemory() {
+        rows = new LongObjectHashMap[STRIPES];
+        locks = new StampedLock[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            rows[i] = new LongObjectHashMap<>();
+            locks[i] = new StampedLock();
+        }
+    }
+
+    @Override
+    public Optional<User> findById(Long id) {
+        if (id == null) {
+            return Optional.empty();
+        }
+        User user = read(id);
+        logger.debug("User found by id: {}", id);
+        return Optional.ofNullable(user).map(UserDaoInMemory::copy);
+    }
+
+    @Override
+    public List<User> findAll() {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < STRIPES; i++) {
+            long stamp = locks[i].readLock();
+            try {
+                rows[i].forEachValue(user -> users.add(copy(user)));
+            } finally {
+                locks[i].unlockRead(stamp);
+            }
+        }
+        logger.debug("Found {} users", box(users.size()));
+        return users;
+    }
+
+    @Override
+    public User save(User user) {
+        try {
+            checkConstraints(user);
+            long id = sequence.incrementAndGet();
+            if (idsByEmail.putIfAbsent(user.getEmail(), id) != null) {
+                throw new IllegalStateException("Duplicate email: " + user.getEmail());
+            }
+            // Like persist(): the caller's instance becomes the saved one
+            user.setId(id);
+            user.setVersion(0L);
+            if (user.getCreatedAt() == null) {
+                user.setCreatedAt(LocalDateTime.now());
+            }
+            write(id, copy(user));
+            logger.info("User saved with id: {}", id);
+            return user;
+        } catch (Exception e) {
+            logger.error("Error saving user", e);
+            throw new RuntimeException("Failed to save user", e);
+        }
+    }
+
+    @Override
+    public User update(User user) {
+        try {
+            checkConstraints(user);
+            long id = Objects.requireNonNull(user.getId(), "id");
+            Long owner = idsByEmail.putIfAbsent(user.getEmail(), id);
+            if (owner != null && owner != id) {
+                throw new IllegalStateException("Duplicate email: " + user.getEmail());
+            }
+
+            User previous;
+            User updated;
+            int stripe = stripe(id);
+            long stamp = locks[stripe].writeLock();
+            try {
+                previous = rows[stripe].get(id);
+                if (previous == null || (user.getVersion() != null && !user.getVersion().equals(previous.getVersion()))) {
+                    if (owner == null) {
+                        idsByEmail.remove(user.getEmail(), id);
+                    }
+                    throw new IllegalStateException("User " + id + " not found or modified concurrently");
+                }
+                // Like merge(): the caller's instance is left untouched
+                updated = copy(user);
+                updated.setCreatedAt(previous.getCreatedAt());
+                updated.setVersion(previous.getVersion() + 1);
+                rows[stripe].put(id, updated);
+            } finally {
+                locks[stripe].unlockWrite(stamp);
+            }
+            if (!previous.getEmail().equals(updated.getEmail())) {
+                idsByEmail.remove(previous.getEmail(), id);
+            }
+            logger.info("User updated with id: {}", id);
+            return copy(updated);
+        } catch (Exception e) {
+            logger.error("Error updating user: {}", user.getId(), e);
+            throw new RuntimeException("Failed to update user", e);
+        }
+    }
+
+    @Override
+    public void delete(Long id) {
+        try {
+            int stripe = stripe(id);
+            User removed;
+            long stamp = locks[stripe].writeLock();
+            try {
+                removed = rows[stripe].remove(id);
+            } finally {
+                locks[stripe].unlockWrite(stamp);
+            }
+            if (removed != null) {
+                idsByEmail.remove(removed.getEmail(), id);
+                logger.info("User deleted with id: {}", id);
+            }
+        } catch (Exception e) {
+            logger.error("Error deleting user: {}", id, e);
+            throw new RuntimeException("Failed to delete user", e);
+        }
+    }
+
+    @Override
+    public Optional<User> findByEmail(String email) {
+        Long id = email == null ? null : idsByEmail.get(email);
+        User user = id == null ? null : read(id);
+        logger.debug("User lookup by email");
+        // The index entry may be a reservation for a write still in progress
+        return user != null && user.getEmail().equals(email) ? Optional.of(copy(user)) : Optional.empty();
+    }
+
+    private User read(long id) {
+        int stripe = stripe(id);
+        long stamp = locks[stripe].readLock();
+        try {
+            return rows[stripe].get(id);
+        } finally {
+            locks[stripe].unlockRead(stamp);
+        }
+    }
+
+    private void write(long id, User user) {
+        int stripe = stripe(id);
+        long stamp = locks[stripe].writeLock();
+        try {
+            rows[stripe].put(id, user);
+        } finally {
+            locks[stripe].unlockWrite(stamp);
+        }
+    }
+
+    private static int stripe(long id) {
+        return (int) (id & (STRIPES - 1));
+    }
+
+    // Mirrors the NOT NULL and VARCHAR limits of the usersdata table
+    private static void checkConstraints(User user) {
+        if (user.getName() == null || user.getName().length() > 100) {
+            throw new IllegalArgumentException("name must be non-null and at most 100 characters");
+        }
+        if (user.getEmail() == null || user.getEmail().length() > 150) {
+            throw new IllegalArgumentException("email must be non-null and at most 150 characters");
+        }
+    }
+
+    private static User copy(User source) {
+        User user = new User();
+        user.setId(source.getId());
+        user.setName(source.getName());
+        user.setEmail(source.getEmail());
+        user.setAge(source.getAge());
+        user.setCreatedAt(source.getCreatedAt());
+        user.setVersion(source.getVersion());
+        return user;
+    }
+}
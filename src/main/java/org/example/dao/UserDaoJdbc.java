@@ -0,0 +1,223 @@
+package org.example.dao;
+
+import org.example.model.User;
+import org.example.util.JdbcUtil;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import static org.apache.logging.log4j.util.Unbox.box;
+
+/**
+ * {@link UserDao} on plain JDBC: one pooled connection and one prepared statement per
+ * call, rows mapped straight onto {@link User}, no session or persistence context.
+ * SQL strings are constants so the driver's per-connection statement cache (see
+ * {@code prepareThreshold} in hibernate.cfg.xml) reuses server-side prepared statements.
+ */
+public class UserDaoJdbc implements UserDao {
+    private static final Logger logger = LogManager.getLogger(UserDaoJdbc.class);
+
+    private static final String USER_COLUMNS = "id, name, email, age, created_at, version";
+
+    private static final String SELECT_BY_ID = "SELECT " + USER_COLUMNS + " FROM usersdata WHERE id = ?";
+
+    private static final String SELECT_ALL = "SELECT " + USER_COLUMNS + " FROM usersdata";
+
+    private static final String SELECT_BY_EMAIL = "SELECT " + USER_COLUMNS + " FROM usersdata WHERE email = ?";
+
+    // Matches the allocationSize on User.id: each nextval() reserves a block of this many ids
+    private static final int ID_BLOCK_SIZE = 50;
+
+    // nextval() claims a whole pooled-lo block, so these ids never collide with Hibernate's;
+    // the row takes the first id and later inserts use the rest of the block
+    private static final String INSERT_CLAIMING_BLOCK =
+            "INSERT INTO usersdata (id, name, email, age, created_at, version) "
+                    + "VALUES (nextval('usersdata_id_seq'), ?, ?, ?, ?, 0) RETURNING id";
+
+    private static final String INSERT =
+            "INSERT INTO usersdata (id, name, email, age, created_at, version) "
+                    + "VALUES (?, ?, ?, ?, ?, 0) RETURNING id";
+
+    private static final String UPDATE =
+            "UPDATE usersdata SET name = ?, email = ?, age = ?, version = version + 1 "
+                    + "WHERE id = ? AND (? IS NULL OR version = ?) RETURNING " + USER_COLUMNS;
+
+    private static final String DELETE = "DELETE FROM usersdata WHERE id = ?";
+
+    private final Supplier<DataSource> dataSource;
+
+    // Unused ids of the last claimed block, [nextId, blockEnd); guarded by this
+    private long nextId;
+    private long blockEnd;
+
+    public UserDaoJdbc() {
+        this(JdbcUtil::getDataSource);
+    }
+
+    public UserDaoJdbc(DataSource dataSource) {
+        this(() -> dataSource);
+    }
+
+    private UserDaoJdbc(Supplier<DataSource> dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    @Override
+    public Optional<User> findById(Long id) {
+        try (Connection connection = dataSource.get().getConnection();
+             PreparedStatement ps = connection.prepareStatement(SELECT_BY_ID)) {
+            ps.setLong(1, id);
+            Optional<User> user = querySingle(ps);
+            logger.debug("User found by id: {}", id);
+            return user;
+        } catch (Exception e) {
+            logger.error("Error finding user by id: {}", id, e);
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public List<User> findAll() {
+        try (Connection connection = dataSource.get().getConnection();
+             PreparedStatement ps = connection.prepareStatement(SELECT_ALL);
+             ResultSet rs = ps.executeQuery()) {
+            List<User> users = new ArrayList<>();
+            while (rs.next()) {
+                users.add(mapRow(rs));
+            }
+            logger.debug("Found {} users", box(users.size()));
+            return users;
+        } catch (Exception e) {
+            logger.error("Error finding all users", e);
+            throw new RuntimeException("Failed to retrieve users", e);
+        }
+    }
+
+    @Override
+    public User save(User user) {
+        // Sequence values start at 1, so 0 means the block is used up
+        long id = takeId();
+        try (Connection connection = dataSource.get().getConnection();
+             PreparedStatement ps = connection.prepareStatement(id == 0 ? INSERT_CLAIMING_BLOCK : INSERT)) {
+            if (user.getCreatedAt() == null) {
+                user.setCreatedAt(LocalDateTime.now());
+            }
+            int index = 1;
+            if (id != 0) {
+                ps.setLong(index++, id);
+            }
+            ps.setString(index++, user.getName());
+            ps.setString(index++, user.getEmail());
+            setAge(ps, index++, user.getAge());
+            ps.setObject(index, user.getCreatedAt());
+            try (ResultSet rs = ps.executeQuery()) {
+                rs.next();
+                user.setId(rs.getLong("id"));
+                user.setVersion(0L);
+            }
+            if (id == 0) {
+                keepBlock(user.getId());
+            }
+            logger.info("User saved with id: {}", user.getId());
+            return user;
+        } catch (Exception e) {
+            logger.error("Error saving user", e);
+            throw new RuntimeException("Failed to save user", e);
+        }
+    }
+
+    @Override
+    public User update(User user) {
+        try (Connection connection = dataSource.get().getConnection();
+             PreparedStatement ps = connection.prepareStatement(UPDATE)) {
+            ps.setString(1, user.getName());
+            ps.setString(2, user.getEmail());
+            setAge(ps, 3, user.getAge());
+            ps.setLong(4, user.getId());
+            // Like merge(): a versioned user only updates the row it was read from
+            ps.setObject(5, user.getVersion(), Types.BIGINT);
+            ps.setObject(6, user.getVersion(), Types.BIGINT);
+            User updatedUser = querySingle(ps).orElseThrow(() -> new IllegalStateException(
+                    "User " + user.getId() + " not found or modified concurrently"));
+            logger.info("User updated with id: {}", user.getId());
+            return updatedUser;
+        } catch (Exception e) {
+            logger.error("Error updating user: {}", user.getId(), e);
+            throw new RuntimeException("Failed to update user", e);
+        }
+    }
+
+    @Override
+    public void delete(Long id) {
+        try (Connection connection = dataSource.get().getConnection();
+             PreparedStatement ps = connection.prepareStatement(DELETE)) {
+            ps.setLong(1, id);
+            if (ps.executeUpdate() > 0) {
+                logger.info("User deleted with id: {}", id);
+            }
+        } catch (Exception e) {
+            logger.error("Error deleting user: {}", id, e);
+            throw new RuntimeException("Failed to delete user", e);
+        }
+    }
+
+    @Override
+    public Optional<User> findByEmail(String email) {
+        try (Connection connection = dataSource.get().getConnection();
+             PreparedStatement ps = connection.prepareStatement(SELECT_BY_EMAIL)) {
+            ps.setString(1, email);
+            Optional<User> user = querySingle(ps);
+            logger.debug("User lookup by email");
+            return user;
+        } catch (Exception e) {
+            logger.error("Error finding user by email", e);
+            return Optional.empty();
+        }
+    }
+
+    private synchronized long takeId() {
+        return nextId < blockEnd ? nextId++ : 0;
+    }
+
+    // Concurrent claims each insert one row; only the last block's remainder is kept
+    private synchronized void keepBlock(long base) {
+        nextId = base + 1;
+        blockEnd = base + ID_BLOCK_SIZE;
+    }
+
+    private static Optional<User> querySingle(PreparedStatement ps) throws SQLException {
+        try (ResultSet rs = ps.executeQuery()) {
+            return rs.next() ? Optional.of(mapRow(rs)) : Optional.empty();
+        }
+    }
+
+    private static User mapRow(ResultSet rs) throws SQLException {
+        User user = new User();
+        user.setId(rs.getLong("id"));
+        user.setName(rs.getString("name"));
+        user.setEmail(rs.getString("email"));
+        user.setAge(rs.getObject("age", Integer.class));
+        user.setCreatedAt(rs.getObject("created_at", LocalDateTime.class));
+        user.setVersion(rs.getLong("version"));
+        return user;
+    }
+
+    private static void setAge(PreparedStatement ps, int index, Integer age) throws SQLException {
+        if (age != null) {
+            ps.setInt(index, age);
+        } else {
+            ps.setNull(index, Types.INTEGER);
+        }
+    }
+}
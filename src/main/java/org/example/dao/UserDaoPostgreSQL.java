@@ -11,6 +11,8 @@ import org.apache.logging.log4j.Logger;
 import java.util.List;
 import java.util.Optional;
 
+import static org.apache.logging.log4j.util.Unbox.box;
+
 public class UserDaoPostgreSQL implements UserDao {
     private static final Logger logger = LogManager.getLogger(UserDaoPostgreSQL.class);
 
@@ -18,7 +20,7 @@ public class UserDaoPostgreSQL implements UserDao {
     public Optional<User> findById(Long id) {
         try (Session session = HibernateUtil.getSessionFactory().openSession()) {
             User user = session.get(User.class, id);
-            logger.info("User found by id: {}", id);
+            logger.debug("User found by id: {}", id);
             return Optional.ofNullable(user);
         } catch (Exception e) {
             logger.error("Error finding user by id: {}", id, e);
@@ -30,7 +32,7 @@ public class UserDaoPostgreSQL implements UserDao {
     public List<User> findAll() {
         try (Session session = HibernateUtil.getSessionFactory().openSession()) {
             List<User> users = session.createQuery("from User", User.class).list();
-            logger.info("Found {} users", users.size());
+            logger.debug("Found {} users", box(users.size()));
             return users;
         } catch (Exception e) {
             logger.error("Error finding all users", e);
@@ -51,7 +53,7 @@ public class UserDaoPostgreSQL implements UserDao {
             if (transaction != null) {
                 transaction.rollback();
             }
-            logger.error("Error saving user: {}", user.getEmail(), e);
+            logger.error("Error saving user", e);
             throw new RuntimeException("Failed to save user", e);
         }
     }
@@ -79,12 +81,14 @@ public class UserDaoPostgreSQL implements UserDao {
         Transaction transaction = null;
         try (Session session = HibernateUtil.getSessionFactory().openSession()) {
             transaction = session.beginTransaction();
-            User user = session.get(User.class, id);
-            if (user != null) {
-                session.remove(user);
+            // Bulk delete: one statement, no entity load
+            int deleted = session.createMutationQuery("delete from User where id = :id")
+                    .setParameter("id", id)
+                    .executeUpdate();
+            transaction.commit();
+            if (deleted > 0) {
                 logger.info("User deleted with id: {}", id);
             }
-            transaction.commit();
         } catch (Exception e) {
             if (transaction != null) {
                 transaction.rollback();
@@ -100,10 +104,10 @@ public class UserDaoPostgreSQL implements UserDao {
             Query<User> query = session.createQuery("from User where email = :email", User.class);
             query.setParameter("email", email);
             User user = query.uniqueResult();
-            logger.info("User found by email: {}", email);
+            logger.debug("User lookup by email");
             return Optional.ofNullable(user);
         } catch (Exception e) {
-            logger.error("Error finding user by email: {}", email, e);
+            logger.error("Error finding user by email", e);
             return Optional.empty();
         }
     }
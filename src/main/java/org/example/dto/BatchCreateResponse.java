@@ -0,0 +1,28 @@
+package org.example.dto;
+
+import java.util.List;
+
+public class BatchCreateResponse {
+    private int created;
+    private int rejected;
+    private List<BatchItemResult> results;
+
+    // Constructors
+    public BatchCreateResponse() {}
+
+    public BatchCreateResponse(int created, int rejected, List<BatchItemResult> results) {
+        this.created = created;
+        this.rejected = rejected;
+        this.results = results;
+    }
+
+    // Getters and Setters
+    public int getCreated() { return created; }
+    public void setCreated(int created) { this.created = created; }
+
+    public int getRejected() { return rejected; }
+    public void setRejected(int rejected) { this.rejected = rejected; }
+
+    public List<BatchItemResult> getResults() { return results; }
+    public void setResults(List<BatchItemResult> results) { this.results = results; }
+}
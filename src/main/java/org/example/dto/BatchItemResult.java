@@ -0,0 +1,46 @@
+package org.example.dto;
+
+public class BatchItemResult {
+
+    public enum Status { CREATED, REJECTED }
+
+    /** Position of the item in the submitted array. */
+    private int index;
+
+    private Status status;
+
+    private UserDto user;
+
+    private String error;
+
+    // Constructors
+    public BatchItemResult() {}
+
+    public BatchItemResult(int index, Status status, UserDto user, String error) {
+        this.index = index;
+        this.status = status;
+        this.user = user;
+        this.error = error;
+    }
+
+    public static BatchItemResult created(int index, UserDto user) {
+        return new BatchItemResult(index, Status.CREATED, user, null);
+    }
+
+    public static BatchItemResult rejected(int index, String error) {
+        return new BatchItemResult(index, Status.REJECTED, null, error);
+    }
+
+    // Getters and Setters
+    public int getIndex() { return index; }
+    public void setIndex(int index) { this.index = index; }
+
+    public Status getStatus() { return status; }
+    public void setStatus(Status status) { this.status = status; }
+
+    public UserDto getUser() { return user; }
+    public void setUser(UserDto user) { this.user = user; }
+
+    public String getError() { return error; }
+    public void setError(String error) { this.error = error; }
+}
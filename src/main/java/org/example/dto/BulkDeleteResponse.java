@@ -0,0 +1,23 @@
+package org.example.dto;
+
+import java.util.List;
+
+public class BulkDeleteResponse {
+    private List<Long> deleted;
+    private List<Long> missing;
+
+    // Constructors
+    public BulkDeleteResponse() {}
+
+    public BulkDeleteResponse(List<Long> deleted, List<Long> missing) {
+        this.deleted = deleted;
+        this.missing = missing;
+    }
+
+    // Getters and Setters
+    public List<Long> getDeleted() { return deleted; }
+    public void setDeleted(List<Long> deleted) { this.deleted = deleted; }
+
+    public List<Long> getMissing() { return missing; }
+    public void setMissing(List<Long> missing) { this.missing = missing; }
+}
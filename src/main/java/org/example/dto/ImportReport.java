@@ -0,0 +1,36 @@
+package org.example.dto;
+
+public class ImportReport {
+    private long rowsRead;
+    private long imported;
+    private long rejected;
+    private long elapsedMillis;
+    private long rowsPerSecond;
+
+    // Constructors
+    public ImportReport() {}
+
+    public ImportReport(long rowsRead, long imported, long rejected, long elapsedMillis, long rowsPerSecond) {
+        this.rowsRead = rowsRead;
+        this.imported = imported;
+        this.rejected = rejected;
+        this.elapsedMillis = elapsedMillis;
+        this.rowsPerSecond = rowsPerSecond;
+    }
+
+    // Getters and Setters
+    public long getRowsRead() { return rowsRead; }
+    public void setRowsRead(long rowsRead) { this.rowsRead = rowsRead; }
+
+    public long getImported() { return imported; }
+    public void setImported(long imported) { this.imported = imported; }
+
+    public long getRejected() { return rejected; }
+    public void setRejected(long rejected) { this.rejected = rejected; }
+
+    public long getElapsedMillis() { return elapsedMillis; }
+    public void setElapsedMillis(long elapsedMillis) { this.elapsedMillis = elapsedMillis; }
+
+    public long getRowsPerSecond() { return rowsPerSecond; }
+    public void setRowsPerSecond(long rowsPerSecond) { this.rowsPerSecond = rowsPerSecond; }
+}
@@ -0,0 +1,59 @@
+package org.example.dto;
+
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.PositiveOrZero;
+
+/**
+ * Sparse update: only non-null fields are written. Sent as {@code application/merge-patch+json}
+ * an explicit {@code null} would mean "remove", which the controller rejects.
+ */
+public class PatchUserRequest {
+
+    @Pattern(regexp = ".*\\S.*", message = "Name must not be blank")
+    private String name;
+
+    @Pattern(regexp = ".*\\S.*", message = "Email must not be blank")
+    @Email(message = "Email should be valid")
+    private String email;
+
+    @PositiveOrZero(message = "Age must be positive or zero")
+    private Integer age;
+
+    /** First field the body set to an explicit {@code null}; a merge patch would remove it. */
+    private String nulledField;
+
+    // Constructors
+    public PatchUserRequest() {}
+
+    public PatchUserRequest(String name, String email, Integer age) {
+        this.name = name;
+        this.email = email;
+        this.age = age;
+    }
+
+    public boolean isEmpty() {
+        return name == null && email == null && age == null;
+    }
+
+    /** Name of a field given as {@code null} in the body, or {@code null} if there is none. */
+    public String nulledField() {
+        return nulledField;
+    }
+
+    private void recordNull(String field, Object value) {
+        if (value == null && nulledField == null) {
+            nulledField = field;
+        }
+    }
+
+    // Getters and Setters
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; recordNull("name", name); }
+
+    public String getEmail() { return email; }
+    public void setEmail(String email) { this.email = email; recordNull("email", email); }
+
+    public Integer getAge() { return age; }
+    public void setAge(Integer age) { this.age = age; recordNull("age", age); }
+}
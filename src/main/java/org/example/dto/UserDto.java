@@ -23,6 +23,8 @@ public class UserDto {
 
     private LocalDateTime createdAt;
 
+    private Long version;
+
     // Constructors
     public UserDto() {}
 
@@ -34,6 +36,11 @@ public class UserDto {
         this.createdAt = createdAt;
     }
 
+    public UserDto(Long id, String name, String email, Integer age, LocalDateTime createdAt, Long version) {
+        this(id, name, email, age, createdAt);
+        this.version = version;
+    }
+
     // Getters and Setters
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
@@ -49,4 +56,7 @@ public class UserDto {
 
     public LocalDateTime getCreatedAt() { return createdAt; }
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
 }
@@ -0,0 +1,51 @@
+package org.example.dto;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * The {@link UserDto} attributes a client can select with {@code fields=}, each with the
+ * {@code usersdata} column it is read from. The id is always included: it identifies the
+ * row and carries the page cursor.
+ */
+public enum UserField {
+    ID("id", "id"),
+    NAME("name", "name"),
+    EMAIL("email", "email"),
+    AGE("age", "age"),
+    CREATED_AT("createdAt", "created_at"),
+    VERSION("version", "version");
+
+    private final String property;
+    private final String column;
+
+    UserField(String property, String column) {
+        this.property = property;
+        this.column = column;
+    }
+
+    public String getProperty() { return property; }
+
+    public String getColumn() { return column; }
+
+    /** Parses a comma-separated list of {@link UserDto} property names, e.g. {@code "id,email"}. */
+    public static Set<UserField> parse(String fields) {
+        if (fields.isBlank()) {
+            throw new IllegalArgumentException("Fields must not be blank");
+        }
+        Set<UserField> selected = EnumSet.of(ID);
+        for (String name : fields.split(",")) {
+            selected.add(fromProperty(name.trim()));
+        }
+        return selected;
+    }
+
+    public static UserField fromProperty(String property) {
+        for (UserField field : values()) {
+            if (field.property.equals(property)) {
+                return field;
+            }
+        }
+        throw new IllegalArgumentException("Unknown field: " + property);
+    }
+}
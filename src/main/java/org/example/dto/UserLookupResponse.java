@@ -0,0 +1,23 @@
+package org.example.dto;
+
+import java.util.List;
+
+public class UserLookupResponse {
+    private List<UserDto> users;
+    private List<Long> missing;
+
+    // Constructors
+    public UserLookupResponse() {}
+
+    public UserLookupResponse(List<UserDto> users, List<Long> missing) {
+        this.users = users;
+        this.missing = missing;
+    }
+
+    // Getters and Setters
+    public List<UserDto> getUsers() { return users; }
+    public void setUsers(List<UserDto> users) { this.users = users; }
+
+    public List<Long> getMissing() { return missing; }
+    public void setMissing(List<Long> missing) { this.missing = missing; }
+}
@@ -0,0 +1,25 @@
+package org.example.dto;
+
+import java.util.List;
+
+public class UserPage {
+    private List<UserDto> items;
+
+    /** Opaque token for the next page, or {@code null} when this is the last page. */
+    private String nextCursor;
+
+    // Constructors
+    public UserPage() {}
+
+    public UserPage(List<UserDto> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    // Getters and Setters
+    public List<UserDto> getItems() { return items; }
+    public void setItems(List<UserDto> items) { this.items = items; }
+
+    public String getNextCursor() { return nextCursor; }
+    public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+}
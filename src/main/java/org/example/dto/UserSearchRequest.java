@@ -0,0 +1,70 @@
+package org.example.dto;
+
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDateTime;
+import java.util.Locale;
+
+/**
+ * Filters for {@code GET /api/users/search}; every field is optional and filters combine with AND.
+ * Name matching is case-insensitive, as a substring ({@code match=contains}, the default)
+ * or a prefix ({@code match=prefix}). Ranges include their lower bound; {@code createdTo}
+ * is exclusive.
+ */
+public class UserSearchRequest {
+
+    public enum Match {
+        CONTAINS, PREFIX;
+
+        public static Match from(String value) {
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unsupported match: " + value);
+            }
+        }
+    }
+
+    private String name;
+    private Match match = Match.CONTAINS;
+    private Integer minAge;
+    private Integer maxAge;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime createdFrom;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime createdTo;
+
+    // Constructors
+    public UserSearchRequest() {}
+
+    public UserSearchRequest(String name, Match match, Integer minAge, Integer maxAge,
+                             LocalDateTime createdFrom, LocalDateTime createdTo) {
+        this.name = name;
+        this.match = match;
+        this.minAge = minAge;
+        this.maxAge = maxAge;
+        this.createdFrom = createdFrom;
+        this.createdTo = createdTo;
+    }
+
+    // Getters and Setters
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+
+    public Match getMatch() { return match; }
+    public void setMatch(Match match) { this.match = match; }
+
+    public Integer getMinAge() { return minAge; }
+    public void setMinAge(Integer minAge) { this.minAge = minAge; }
+
+    public Integer getMaxAge() { return maxAge; }
+    public void setMaxAge(Integer maxAge) { this.maxAge = maxAge; }
+
+    public LocalDateTime getCreatedFrom() { return createdFrom; }
+    public void setCreatedFrom(LocalDateTime createdFrom) { this.createdFrom = createdFrom; }
+
+    public LocalDateTime getCreatedTo() { return createdTo; }
+    public void setCreatedTo(LocalDateTime createdTo) { this.createdTo = createdTo; }
+}
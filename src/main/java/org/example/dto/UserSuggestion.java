@@ -0,0 +1,32 @@
+package org.example.dto;
+
+/** One typeahead match from {@code GET /api/users/suggest}. */
+public class UserSuggestion {
+    private Long id;
+    private String name;
+    private String email;
+    private Long version;
+
+    // Constructors
+    public UserSuggestion() {}
+
+    public UserSuggestion(Long id, String name, String email, Long version) {
+        this.id = id;
+        this.name = name;
+        this.email = email;
+        this.version = version;
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+
+    public String getEmail() { return email; }
+    public void setEmail(String email) { this.email = email; }
+
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+}
@@ -1,6 +1,7 @@
 package org.example.mappers;
 
 import org.example.dto.UserDto;
+import org.example.dto.UserSuggestion;
 import org.example.model.User;
 
 public final class UserMapper {
@@ -14,7 +15,12 @@ public final class UserMapper {
                 user.getName(),
                 user.getEmail(),
                 user.getAge(),
-                user.getCreatedAt()
+                user.getCreatedAt(),
+                user.getVersion()
         );
     }
+
+    public static UserSuggestion toSuggestion(User user) {
+        return new UserSuggestion(user.getId(), user.getName(), user.getEmail(), user.getVersion());
+    }
 }
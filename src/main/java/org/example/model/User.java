@@ -6,6 +6,9 @@ import jakarta.persistence.Id;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Column;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Version;
+import org.hibernate.annotations.ColumnDefault;
 import java.time.LocalDateTime;
 
 @Entity
@@ -13,7 +16,10 @@ import java.time.LocalDateTime;
 public class User {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Pooled sequence allocation (pooled-lo, see configuration) lets Hibernate assign ids
+    // without a round-trip per row, which IDENTITY would force and which disables batching
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "usersdata_id_seq")
+    @SequenceGenerator(name = "usersdata_id_seq", sequenceName = "usersdata_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "name", nullable = false, length = 100)
@@ -28,12 +34,17 @@ public class User {
     @Column(name = "created_at", nullable = false)
     private LocalDateTime createdAt;
 
-    public User() {
-        this.createdAt = LocalDateTime.now();
-    }
+    // Incremented on every update; exposed to clients as the ETag
+    @Version
+    @ColumnDefault("0")
+    @Column(name = "version", nullable = false)
+    private Long version;
+
+    // Used by Hibernate and row mappers for every loaded row, which set createdAt themselves
+    public User() {}
 
     public User(String name, String email, Integer age) {
-        this();
+        this.createdAt = LocalDateTime.now();
         this.name = name;
         this.email = email;
         this.age = age;
@@ -54,4 +65,7 @@ public class User {
 
     public LocalDateTime getCreatedAt() { return createdAt; }
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
 }
@@ -0,0 +1,9 @@
+package org.example.repository;
+
+/**
+ * Outcome of {@link UserRepositoryCustom#mergeImportStaging()}: rows inserted and the id
+ * range they were drawn from. Both ids are 0 when nothing was inserted; rows created
+ * concurrently by other writers may fall inside the range.
+ */
+public record ImportedRows(long count, long firstId, long lastId) {
+}
@@ -1,13 +1,62 @@
 package org.example.repository;
 
+import jakarta.persistence.QueryHint;
+import org.example.dto.UserDto;
+import org.example.dto.UserSuggestion;
 import org.example.model.User;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {
-    Optional<User> findByEmail(String email);
-    boolean existsByEmail(String email);
+public interface UserRepository extends JpaRepository<User, Long>, UserRepositoryCustom {
+
+    // Read paths project straight into the DTO: no entity is instantiated, snapshotted
+    // for dirty checking or attached to the persistence context
+    String SELECT_DTO =
+            "select new org.example.dto.UserDto(u.id, u.name, u.email, u.age, u.createdAt, u.version) from User u";
+
+    // Same lower(email) match as findDtoByEmail; pass an already normalized email
+    @Query("select u from User u where lower(u.email) = :email")
+    Optional<User> findByEmail(@Param("email") String email);
+
+    @Query("select count(u) > 0 from User u where lower(u.email) = :email")
+    boolean existsByEmail(@Param("email") String email);
+
+    @Query(SELECT_DTO + " where u.id = :id")
+    Optional<UserDto> findDtoById(@Param("id") Long id);
+
+    // Case-insensitive: served by the lower(email) unique index, and still finds rows
+    // written before emails were normalized. Pass an already normalized email.
+    @Query(SELECT_DTO + " where lower(u.email) = :email")
+    Optional<UserDto> findDtoByEmail(@Param("email") String email);
+
+    // Keyset page: walks the primary key index, so cost does not grow with depth
+    @Query(SELECT_DTO + " where u.id > :afterId order by u.id")
+    List<UserDto> findDtosAfterId(@Param("afterId") Long afterId, Limit limit);
+
+    // Server-side cursor: rows arrive in fetch-size chunks and are projected
+    // straight into DTOs, so nothing is ever attached to the persistence context.
+    // Must be consumed inside a transaction and closed afterwards.
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query(SELECT_DTO + " order by u.id")
+    Stream<UserDto> streamAllAsDto();
+
+    // Same cursor, reading only the columns the typeahead index keeps
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select new org.example.dto.UserSuggestion(u.id, u.name, u.email, u.version) from User u order by u.id")
+    Stream<UserSuggestion> streamAllAsSuggestions();
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select new org.example.dto.UserSuggestion(u.id, u.name, u.email, u.version) from User u "
+            + "where u.id between :firstId and :lastId order by u.id")
+    Stream<UserSuggestion> streamSuggestionsByIdBetween(@Param("firstId") Long firstId, @Param("lastId") Long lastId);
 }
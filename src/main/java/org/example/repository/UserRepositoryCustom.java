@@ -0,0 +1,87 @@
+package org.example.repository;
+
+import org.example.dto.UserDto;
+import org.example.dto.UserField;
+import org.example.dto.UserSearchRequest;
+import org.example.model.User;
+
+import java.io.Reader;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Hand-written operations that derived queries cannot express efficiently.
+ * Implemented by {@link UserRepositoryCustomImpl} and mixed into {@link UserRepository}.
+ */
+public interface UserRepositoryCustom {
+
+    /**
+     * Inserts {@code user} in a single statement unless its email is already taken.
+     * Returns the stored row, or empty if the unique index on email reported a conflict.
+     */
+    Optional<User> insertIfEmailAbsent(User user);
+
+    /**
+     * Overwrites name, email and age and bumps the version in a single statement.
+     * When {@code expectedVersion} is non-null the row is only updated if its version
+     * still matches. Returns the updated row, or empty if no row matched.
+     */
+    Optional<User> updateReturning(Long id, String name, String email, Integer age, Long expectedVersion);
+
+    /**
+     * Writes only the non-null fields and bumps the version in a single statement, with the
+     * same {@code expectedVersion} semantics as {@link #updateReturning}. At least one field
+     * must be non-null. Returns the updated row, or empty if no row matched.
+     */
+    Optional<User> patchReturning(Long id, String name, String email, Integer age, Long expectedVersion);
+
+    /** Loads all rows whose id is in {@code ids} with a single {@code = ANY(?)} query, in no particular order. */
+    List<UserDto> findAllByIdAny(Collection<Long> ids);
+
+    /**
+     * Keyset page like {@link UserRepository#findDtosAfterId} that selects only the columns
+     * behind {@code fields}; the other DTO attributes are left null.
+     */
+    List<UserDto> findFieldsAfterId(Set<UserField> fields, long afterId, int limit);
+
+    /**
+     * Returns up to {@code limit} users with {@code id > afterId} matching all non-null
+     * filters in {@code criteria}, in id order. See {@link UserSearchQuery} for the SQL.
+     */
+    List<UserDto> search(UserSearchRequest criteria, long afterId, int limit);
+
+    /** Deletes the row in a single statement; returns the version it had, or empty if it did not exist. */
+    Optional<Long> deleteReturningVersion(Long id);
+
+    /** Deletes all matching rows in a single statement; returns the deleted ids with the version each had. */
+    Map<Long, Long> deleteAllByIdReturning(Collection<Long> ids);
+
+    /**
+     * Inserts all users in a single statement, skipping those whose email (ignoring case)
+     * already exists, including rows committed concurrently. Assigns an id to every user
+     * and returns the ones that were inserted.
+     */
+    List<User> insertAllIfEmailAbsent(List<User> users);
+
+    /**
+     * Returns the subset of {@code emails} that already exist, ignoring case, in a single
+     * round-trip. {@code emails} must already be normalized (see {@code Emails}).
+     */
+    Set<String> findExistingEmails(Collection<String> emails);
+
+    /**
+     * Streams CSV rows ({@code name,email,age} with a header line) into a transaction-scoped
+     * staging table using PostgreSQL {@code COPY}. Returns the number of rows read.
+     */
+    long copyIntoImportStaging(Reader csv);
+
+    /**
+     * Moves valid staged rows into {@code usersdata}, skipping emails that already exist.
+     * Must run in the same transaction as {@link #copyIntoImportStaging(Reader)}.
+     * Returns the number of rows inserted and their id range.
+     */
+    ImportedRows mergeImportStaging();
+}
@@ -0,0 +1,325 @@
+package org.example.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.example.dto.UserDto;
+import org.example.dto.UserField;
+import org.example.dto.UserSearchRequest;
+import org.example.model.User;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.hibernate.persister.entity.EntityPersister;
+import org.postgresql.PGConnection;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+public class UserRepositoryCustomImpl implements UserRepositoryCustom {
+
+    // Matches the allocationSize on User.id: each nextval() reserves a block of this many ids
+    private static final int ID_BLOCK_SIZE = 50;
+
+    private static final String USER_COLUMNS = "id, name, email, age, created_at, version";
+
+    // No conflict target: the email constraint and init.sql's lower(email) index both count as
+    // "already exists", and the id comes from the sequence so nothing else can conflict
+    private static final String INSERT_IF_EMAIL_ABSENT =
+            "INSERT INTO usersdata (" + USER_COLUMNS + ") VALUES (?, ?, ?, ?, ?, 0) "
+                    + "ON CONFLICT DO NOTHING RETURNING " + USER_COLUMNS;
+
+    // Same conflict handling as INSERT_IF_EMAIL_ABSENT, for a whole batch passed as arrays
+    private static final String INSERT_ALL_IF_EMAIL_ABSENT =
+            "INSERT INTO usersdata (" + USER_COLUMNS + ") "
+                    + "SELECT id, name, email, age, created_at, 0 "
+                    + "FROM unnest(?::bigint[], ?::varchar[], ?::varchar[], ?::int[], ?::timestamp[]) "
+                    + "AS batch(id, name, email, age, created_at) "
+                    + "ON CONFLICT DO NOTHING RETURNING id";
+
+    private static final String UPDATE_RETURNING =
+            "UPDATE usersdata SET name = ?, email = ?, age = ?, version = version + 1 "
+                    + "WHERE id = ? RETURNING " + USER_COLUMNS;
+
+    private static final String UPDATE_IF_VERSION_RETURNING =
+            "UPDATE usersdata SET name = ?, email = ?, age = ?, version = version + 1 "
+                    + "WHERE id = ? AND version = ? RETURNING " + USER_COLUMNS;
+
+    private static final String SELECT_BY_ID_ANY = "SELECT " + USER_COLUMNS + " FROM usersdata WHERE id = ANY(?)";
+
+    private static final String DELETE_BY_ID_RETURNING = "DELETE FROM usersdata WHERE id = ? RETURNING version";
+
+    private static final String DELETE_ALL_BY_ID_RETURNING =
+            "DELETE FROM usersdata WHERE id = ANY(?) RETURNING id, version";
+
+    private static final RowMapper<User> USER_ROW_MAPPER = (rs, rowNum) -> {
+        User user = new User();
+        user.setId(rs.getLong("id"));
+        user.setName(rs.getString("name"));
+        user.setEmail(rs.getString("email"));
+        user.setAge((Integer) rs.getObject("age"));
+        user.setCreatedAt(rs.getObject("created_at", LocalDateTime.class));
+        user.setVersion(rs.getLong("version"));
+        return user;
+    };
+
+    // Read-only queries map rows directly to the response type
+    private static final RowMapper<UserDto> USER_DTO_ROW_MAPPER = (rs, rowNum) -> new UserDto(
+            rs.getLong("id"),
+            rs.getString("name"),
+            rs.getString("email"),
+            (Integer) rs.getObject("age"),
+            rs.getObject("created_at", LocalDateTime.class),
+            rs.getLong("version"));
+
+    private static final String CREATE_IMPORT_STAGING =
+            "CREATE TEMP TABLE IF NOT EXISTS usersdata_import (name text, email text, age text) ON COMMIT DROP";
+
+    private static final String COPY_INTO_IMPORT_STAGING =
+            "COPY usersdata_import (name, email, age) FROM STDIN WITH (FORMAT csv, HEADER true)";
+
+    // Rows are numbered and given ids from one nextval() per block, the same way Hibernate's
+    // pooled-lo optimizer does, instead of burning a whole block per row
+    private static final String MERGE_IMPORT_STAGING = """
+            WITH valid AS (
+                SELECT trim(name) AS name, lower(trim(email)) AS email, trim(age)::integer AS age,
+                       row_number() OVER () - 1 AS rn
+                FROM usersdata_import
+                WHERE trim(name) <> '' AND length(trim(name)) <= 100
+                  AND trim(email) ~ '^[^@\\s]+@[^@\\s]+$' AND length(trim(email)) <= 150
+                  AND trim(age) ~ '^[0-9]{1,9}$'
+            ), blocks AS (
+                SELECT b, nextval('usersdata_id_seq') AS base
+                FROM generate_series(0, ((SELECT count(*) FROM valid) + %1$d - 1) / %1$d - 1) AS b
+            ), inserted AS (
+                INSERT INTO usersdata (id, name, email, age, created_at, version)
+                SELECT blocks.base + valid.rn %% %1$d, valid.name, valid.email, valid.age, LOCALTIMESTAMP, 0
+                FROM valid JOIN blocks ON blocks.b = valid.rn / %1$d
+                ON CONFLICT DO NOTHING
+                RETURNING id
+            )
+            SELECT count(*), coalesce(min(id), 0), coalesce(max(id), 0) FROM inserted
+            """.formatted(ID_BLOCK_SIZE);
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public UserRepositoryCustomImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public Optional<User> insertIfEmailAbsent(User user) {
+        Long id = nextId(user);
+        List<User> inserted = jdbcTemplate.query(INSERT_IF_EMAIL_ABSENT, USER_ROW_MAPPER,
+                id, user.getName(), user.getEmail(), user.getAge(), Timestamp.valueOf(user.getCreatedAt()));
+        return inserted.stream().findFirst();
+    }
+
+    @Override
+    public Optional<User> updateReturning(Long id, String name, String email, Integer age, Long expectedVersion) {
+        List<User> updated = expectedVersion == null
+                ? jdbcTemplate.query(UPDATE_RETURNING, USER_ROW_MAPPER, name, email, age, id)
+                : jdbcTemplate.query(UPDATE_IF_VERSION_RETURNING, USER_ROW_MAPPER, name, email, age, id, expectedVersion);
+        return updated.stream().findFirst();
+    }
+
+    @Override
+    public Optional<User> patchReturning(Long id, String name, String email, Integer age, Long expectedVersion) {
+        StringBuilder sql = new StringBuilder("UPDATE usersdata SET ");
+        List<Object> args = new ArrayList<>(5);
+        if (name != null) {
+            sql.append("name = ?, ");
+            args.add(name);
+        }
+        if (email != null) {
+            sql.append("email = ?, ");
+            args.add(email);
+        }
+        if (age != null) {
+            sql.append("age = ?, ");
+            args.add(age);
+        }
+        if (args.isEmpty()) {
+            throw new IllegalArgumentException("Patch must change at least one field");
+        }
+        sql.append("version = version + 1 WHERE id = ?");
+        args.add(id);
+        if (expectedVersion != null) {
+            sql.append(" AND version = ?");
+            args.add(expectedVersion);
+        }
+        sql.append(" RETURNING ").append(USER_COLUMNS);
+
+        List<User> updated = jdbcTemplate.query(sql.toString(), USER_ROW_MAPPER, args.toArray());
+        return updated.stream().findFirst();
+    }
+
+    @Override
+    public List<UserDto> findAllByIdAny(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(SELECT_BY_ID_ANY);
+            ps.setArray(1, con.createArrayOf("bigint", ids.toArray()));
+            return ps;
+        }, USER_DTO_ROW_MAPPER);
+    }
+
+    @Override
+    public List<UserDto> findFieldsAfterId(Set<UserField> fields, long afterId, int limit) {
+        // Column names come from the enum, never from the request
+        String columns = fields.stream().map(UserField::getColumn).collect(Collectors.joining(", "));
+        String sql = "SELECT " + columns + " FROM usersdata WHERE id > ? ORDER BY id LIMIT ?";
+        return jdbcTemplate.query(sql, (rs, rowNum) -> {
+            UserDto user = new UserDto();
+            for (UserField field : fields) {
+                switch (field) {
+                    case ID -> user.setId(rs.getLong("id"));
+                    case NAME -> user.setName(rs.getString("name"));
+                    case EMAIL -> user.setEmail(rs.getString("email"));
+                    case AGE -> user.setAge((Integer) rs.getObject("age"));
+                    case CREATED_AT -> user.setCreatedAt(rs.getObject("created_at", LocalDateTime.class));
+                    case VERSION -> user.setVersion(rs.getLong("version"));
+                }
+            }
+            return user;
+        }, afterId, limit);
+    }
+
+    @Override
+    public List<UserDto> search(UserSearchRequest criteria, long afterId, int limit) {
+        UserSearchQuery query = UserSearchQuery.of(criteria, afterId, limit);
+        return jdbcTemplate.query(query.sql(), USER_DTO_ROW_MAPPER, query.args());
+    }
+
+    @Override
+    public Optional<Long> deleteReturningVersion(Long id) {
+        return jdbcTemplate.query(DELETE_BY_ID_RETURNING, (rs, rowNum) -> rs.getLong(1), id).stream().findFirst();
+    }
+
+    @Override
+    public Map<Long, Long> deleteAllByIdReturning(Collection<Long> ids) {
+        Map<Long, Long> deleted = new HashMap<>();
+        if (ids.isEmpty()) {
+            return deleted;
+        }
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(DELETE_ALL_BY_ID_RETURNING);
+            ps.setArray(1, con.createArrayOf("bigint", ids.toArray()));
+            return ps;
+        }, rs -> {
+            deleted.put(rs.getLong(1), rs.getLong(2));
+        });
+        return deleted;
+    }
+
+    @Override
+    public List<User> insertAllIfEmailAbsent(List<User> users) {
+        if (users.isEmpty()) {
+            return List.of();
+        }
+        Long[] ids = new Long[users.size()];
+        String[] names = new String[users.size()];
+        String[] emails = new String[users.size()];
+        Integer[] ages = new Integer[users.size()];
+        Timestamp[] createdAts = new Timestamp[users.size()];
+        for (int i = 0; i < users.size(); i++) {
+            User user = users.get(i);
+            user.setId(nextId(user));
+            user.setVersion(0L);
+            ids[i] = user.getId();
+            names[i] = user.getName();
+            emails[i] = user.getEmail();
+            ages[i] = user.getAge();
+            createdAts[i] = Timestamp.valueOf(user.getCreatedAt());
+        }
+        Set<Long> inserted = new HashSet<>();
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(INSERT_ALL_IF_EMAIL_ABSENT);
+            ps.setArray(1, con.createArrayOf("bigint", ids));
+            ps.setArray(2, con.createArrayOf("varchar", names));
+            ps.setArray(3, con.createArrayOf("varchar", emails));
+            ps.setArray(4, con.createArrayOf("int4", ages));
+            ps.setArray(5, con.createArrayOf("timestamp", createdAts));
+            return ps;
+        }, rs -> {
+            inserted.add(rs.getLong(1));
+        });
+        return users.stream().filter(user -> inserted.contains(user.getId())).toList();
+    }
+
+    @Override
+    public Set<String> findExistingEmails(Collection<String> emails) {
+        Set<String> existing = new HashSet<>();
+        if (emails.isEmpty()) {
+            return existing;
+        }
+        // = ANY(array) keeps this a single statement with a single bind parameter,
+        // regardless of how many emails are checked; lower(email) probes the unique
+        // index from init.sql, whose INCLUDE (email) makes it an index-only scan
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(
+                    "SELECT lower(email) FROM usersdata WHERE lower(email) = ANY(?)");
+            ps.setArray(1, con.createArrayOf("varchar", emails.toArray()));
+            return ps;
+        }, rs -> {
+            existing.add(rs.getString(1));
+        });
+        return existing;
+    }
+
+    @Override
+    public long copyIntoImportStaging(Reader csv) {
+        jdbcTemplate.execute(CREATE_IMPORT_STAGING);
+        Long rows = jdbcTemplate.execute((ConnectionCallback<Long>) con -> {
+            try {
+                return con.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_INTO_IMPORT_STAGING, csv);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to read CSV upload", e);
+            } catch (SQLException e) {
+                // SQLSTATE class 22 is "data exception": the upload itself is malformed
+                if (e.getSQLState() != null && e.getSQLState().startsWith("22")) {
+                    throw new IllegalArgumentException("Malformed CSV: " + e.getMessage(), e);
+                }
+                throw e;
+            }
+        });
+        return rows == null ? 0 : rows;
+    }
+
+    @Override
+    public ImportedRows mergeImportStaging() {
+        return jdbcTemplate.queryForObject(MERGE_IMPORT_STAGING,
+                (rs, rowNum) -> new ImportedRows(rs.getLong(1), rs.getLong(2), rs.getLong(3)));
+    }
+
+    // Draws from the entity's pooled-lo generator, so plain SQL inserts get ids from the
+    // same in-memory block as persist() and only hit the sequence once per block
+    private Long nextId(User user) {
+        SharedSessionContractImplementor session = entityManager.unwrap(SharedSessionContractImplementor.class);
+        EntityPersister persister = session.getFactory().getMappingMetamodel().getEntityDescriptor(User.class);
+        // The sequence generator runs before the insert, so it never needs the current value
+        BeforeExecutionGenerator generator = (BeforeExecutionGenerator) persister.getGenerator();
+        return (Long) generator.generate(session, user, null, EventType.INSERT);
+    }
+}
@@ -0,0 +1,70 @@
+package org.example.repository;
+
+import org.example.dto.UserSearchRequest;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * SQL for one keyset page of a user search. Every filter maps to an index from
+ * {@code init.sql}: {@code lower(name) LIKE} to the trigram index, age and
+ * {@code created_at} ranges to their btrees, and the {@code id} keyset to the primary key.
+ */
+public final class UserSearchQuery {
+
+    private static final String SELECT =
+            "SELECT id, name, email, age, created_at, version FROM usersdata WHERE id > ?";
+
+    private final String sql;
+    private final Object[] args;
+
+    private UserSearchQuery(String sql, Object[] args) {
+        this.sql = sql;
+        this.args = args;
+    }
+
+    public static UserSearchQuery of(UserSearchRequest criteria, long afterId, int limit) {
+        StringBuilder sql = new StringBuilder(SELECT);
+        List<Object> args = new ArrayList<>(7);
+        args.add(afterId);
+        if (criteria.getName() != null) {
+            String pattern = escapeLike(criteria.getName().toLowerCase(Locale.ROOT));
+            sql.append(" AND lower(name) LIKE ?");
+            args.add(criteria.getMatch() == UserSearchRequest.Match.PREFIX ? pattern + "%" : "%" + pattern + "%");
+        }
+        if (criteria.getMinAge() != null) {
+            sql.append(" AND age >= ?");
+            args.add(criteria.getMinAge());
+        }
+        if (criteria.getMaxAge() != null) {
+            sql.append(" AND age <= ?");
+            args.add(criteria.getMaxAge());
+        }
+        if (criteria.getCreatedFrom() != null) {
+            sql.append(" AND created_at >= ?");
+            args.add(Timestamp.valueOf(criteria.getCreatedFrom()));
+        }
+        if (criteria.getCreatedTo() != null) {
+            sql.append(" AND created_at < ?");
+            args.add(Timestamp.valueOf(criteria.getCreatedTo()));
+        }
+        sql.append(" ORDER BY id LIMIT ?");
+        args.add(limit);
+        return new UserSearchQuery(sql.toString(), args.toArray());
+    }
+
+    public String sql() {
+        return sql;
+    }
+
+    public Object[] args() {
+        return args.clone();
+    }
+
+    // LIKE's default escape character in PostgreSQL is the backslash
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -0,0 +1,591 @@
+package org.example.search;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.example.dto.UserSuggestion;
+import org.example.util.LongIntHashMap;
+import org.example.util.LongObjectHashMap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import static org.apache.logging.log4j.util.Unbox.box;
+
+/**
+ * In-memory inverted trigram index over user names and emails for typeahead.
+ *
+ * <p>Text is split into words on anything that is not a letter or digit and compared
+ * case-insensitively. Each word is indexed by its trigrams, padded with two leading blanks
+ * so that one- and two-character prefixes have grams of their own. A query word of three
+ * or more characters matches a word containing it; a shorter one matches a word starting
+ * with it. Every query word must match, and candidates are verified against the text, so
+ * trigram collisions never surface.
+ *
+ * <p>Results rank name matches above email matches and prefixes above substrings, then
+ * shorter names first. Writers apply changes once their transaction commits, like
+ * {@link org.example.cache.UserCache} evictions; an upsert older than the indexed version
+ * of the user is ignored, so late callbacks cannot roll an entry back. Removed users keep
+ * a tombstone with the version their row was deleted at, so a late upsert cannot bring
+ * them back either; that costs about 40 bytes per user deleted since the last rebuild,
+ * whose snapshot already leaves them out.
+ *
+ * <p>Users are kept in parallel arrays under dense document numbers and posting lists are
+ * plain {@code int[]}s, trimmed after bulk loads; roughly 300 bytes per user. Bulk loads number
+ * documents by name length, the ranking's tie-break, so a query stops scanning once it holds a
+ * full page of best-score matches. Broad queries that never get there verify at most
+ * {@code users.suggest.max-candidates} documents and return the best of those.
+ *
+ * <p>As a {@link MeterBinder} it publishes {@code users.suggest.documents}, {@code users.suggest.grams},
+ * the estimated {@code users.suggest.memory} in bytes and the {@code users.suggest.rebuild} timer.
+ */
+@Component
+public class UserSuggestIndex implements MeterBinder {
+    private static final Logger logger = LogManager.getLogger(UserSuggestIndex.class);
+
+    private static final int GRAM = 3;
+
+    private final int maxCandidates;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private Segment segment = new Segment();
+    // Changes that arrive while a rebuild streams the table; replayed onto the new segment
+    private List<Consumer<Segment>> pending;
+    private volatile Timer rebuildTimer;
+
+    public UserSuggestIndex(@Value("${users.suggest.max-candidates:10000}") int maxCandidates) {
+        this.maxCandidates = maxCandidates;
+    }
+
+    /**
+     * Returns up to {@code limit} users matching {@code query}, best first. Queries
+     * without letters or digits match nothing.
+     */
+    public List<UserSuggestion> suggest(String query, int limit) {
+        String[] words = queryWords(query);
+        if (words.length == 0 || limit < 1) {
+            return List.of();
+        }
+        long[] grams = queryGrams(words);
+        lock.readLock().lock();
+        try {
+            return segment.search(words, grams, limit, maxCandidates);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Indexes {@code user} once the current transaction commits, or right away outside one. */
+    public void putAfterCommit(UserSuggestion user) {
+        afterCommit(segment -> put(segment, user));
+    }
+
+    /**
+     * Drops {@code id}, deleted at {@code version}, once the current transaction commits,
+     * or right away outside one. Later upserts up to that version are ignored.
+     */
+    public void removeAfterCommit(Long id, long version) {
+        afterCommit(segment -> {
+            if (segment.removedVersion(id) < version) {
+                segment.removedVersions.put(id, version);
+            }
+            segment.remove(id);
+        });
+    }
+
+    /** Indexes already committed rows, e.g. those added by an import. */
+    public void putAll(Stream<UserSuggestion> users) {
+        users.forEach(user -> apply(segment -> put(segment, user)));
+        lock.writeLock().lock();
+        try {
+            segment.trim();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Replaces the contents with the users {@code snapshot} streams, closing the stream. The
+     * new segment is built without blocking readers; changes applied from the moment before
+     * the snapshot is opened are replayed onto it before it is swapped in. Only tombstones
+     * recorded by those changes carry over; older ones are checked during the replay and
+     * then dropped.
+     */
+    public synchronized void rebuild(Supplier<Stream<UserSuggestion>> snapshot) {
+        long start = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            pending = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        Segment rebuilt = new Segment();
+        try (Stream<UserSuggestion> users = snapshot.get()) {
+            rebuilt.load(users);
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                pending = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+        lock.writeLock().lock();
+        try {
+            rebuilt.replacedRemovals = segment.removedVersions;
+            pending.forEach(change -> change.accept(rebuilt));
+            rebuilt.replacedRemovals = null;
+            pending = null;
+            rebuilt.trim();
+            segment = rebuilt;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        long elapsed = System.nanoTime() - start;
+        Timer timer = rebuildTimer;
+        if (timer != null) {
+            timer.record(elapsed, TimeUnit.NANOSECONDS);
+        }
+        logger.info("Suggest index rebuilt with {} users in {} ms", box(rebuilt.live),
+                box(TimeUnit.NANOSECONDS.toMillis(elapsed)));
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return segment.live;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Approximate heap retained by the index, in bytes. */
+    public long estimatedBytes() {
+        lock.readLock().lock();
+        try {
+            return segment.estimatedBytes();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int gramCount() {
+        lock.readLock().lock();
+        try {
+            return segment.postings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("users.suggest.documents", this, UserSuggestIndex::size)
+                .description("Users in the typeahead index")
+                .register(registry);
+        Gauge.builder("users.suggest.grams", this, UserSuggestIndex::gramCount)
+                .description("Distinct trigrams in the typeahead index")
+                .register(registry);
+        Gauge.builder("users.suggest.memory", this, UserSuggestIndex::estimatedBytes)
+                .description("Estimated heap retained by the typeahead index")
+                .baseUnit("bytes")
+                .register(registry);
+        rebuildTimer = Timer.builder("users.suggest.rebuild")
+                .description("Time to rebuild the typeahead index from the table")
+                .register(registry);
+    }
+
+    // Runs under the write lock, like every change
+    private void put(Segment segment, UserSuggestion user) {
+        if (segment.removedVersion(user.getId()) < (user.getVersion() == null ? 0 : user.getVersion())) {
+            segment.put(user);
+        }
+    }
+
+    private void afterCommit(Consumer<Segment> change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply(change);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                apply(change);
+            }
+        });
+    }
+
+    private void apply(Consumer<Segment> change) {
+        lock.writeLock().lock();
+        try {
+            change.accept(segment);
+            if (pending != null) {
+                pending.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static String[] queryWords(String query) {
+        if (query == null) {
+            return new String[0];
+        }
+        List<String> words = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= query.length(); i++) {
+            boolean inWord = i < query.length() && Character.isLetterOrDigit(query.charAt(i));
+            if (inWord && start < 0) {
+                start = i;
+            } else if (!inWord && start >= 0) {
+                StringBuilder word = new StringBuilder(i - start);
+                for (int c = start; c < i; c++) {
+                    word.append(Character.toLowerCase(query.charAt(c)));
+                }
+                words.add(word.toString());
+                start = -1;
+            }
+        }
+        return words.toArray(String[]::new);
+    }
+
+    // Long query words use their own trigrams (substring match), short ones the padded prefix grams
+    private static long[] queryGrams(String[] words) {
+        List<Long> grams = new ArrayList<>();
+        for (String word : words) {
+            int from = word.length() >= GRAM ? 0 : -(GRAM - 1);
+            for (int i = from; i + GRAM <= word.length(); i++) {
+                long gram = gram(word, 0, i);
+                if (!grams.contains(gram)) {
+                    grams.add(gram);
+                }
+            }
+        }
+        return grams.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    // Gram at offset within the word that begins at start; offsets before the word are blanks
+    private static long gram(String text, int start, int offset) {
+        long gram = 0;
+        for (int i = offset; i < offset + GRAM; i++) {
+            char c = i < 0 ? ' ' : Character.toLowerCase(text.charAt(start + i));
+            gram = gram << 16 | c;
+        }
+        return gram;
+    }
+
+    private static boolean isWordChar(String text, int index) {
+        return index >= 0 && index < text.length() && Character.isLetterOrDigit(text.charAt(index));
+    }
+
+    private record Match(int docNo, int score, int nameLength, long id) {
+    }
+
+    private static final Comparator<Match> BEST_FIRST = Comparator.comparingInt(Match::score)
+            .thenComparingInt(Match::nameLength)
+            .thenComparingLong(Match::id);
+
+    private static final Comparator<UserSuggestion> LOAD_ORDER =
+            Comparator.<UserSuggestion>comparingInt(user -> user.getName() == null ? 0 : user.getName().length())
+                    .thenComparing(UserSuggestion::getId);
+
+    /**
+     * Postings over dense document numbers, which only grow, so posting lists stay sorted.
+     * Documents below {@code sortedCount} are in ranking tie-break order; later ones were added
+     * one at a time. A removed document keeps its number with a null name until compaction.
+     */
+    private static final class Segment {
+        final LongObjectHashMap<IntList> postings = new LongObjectHashMap<>();
+        final LongIntHashMap docById = new LongIntHashMap();
+        // Version each removed user was deleted at; kept through compactions, not rebuilds
+        final LongObjectHashMap<Long> removedVersions = new LongObjectHashMap<>();
+        // Tombstones of the segment being replaced, consulted while pending changes replay
+        LongObjectHashMap<Long> replacedRemovals;
+        long[] ids = new long[64];
+        long[] versions = new long[64];
+        String[] names = new String[64];
+        String[] emails = new String[64];
+        int docCount;
+        int sortedCount;
+        int live;
+        long stringBytes;
+
+        void load(Stream<UserSuggestion> users) {
+            users.sorted(LOAD_ORDER).forEachOrdered(this::put);
+            sortedCount = docCount;
+            trim();
+        }
+
+        // Version id was deleted at, or -1 if it has no tombstone
+        long removedVersion(long id) {
+            Long removed = removedVersions.get(id);
+            Long replaced = replacedRemovals == null ? null : replacedRemovals.get(id);
+            if (replaced != null && (removed == null || replaced > removed)) {
+                removed = replaced;
+            }
+            return removed == null ? -1 : removed;
+        }
+
+        void put(UserSuggestion user) {
+            int existing = docById.get(user.getId());
+            long version = user.getVersion() == null ? 0 : user.getVersion();
+            if (existing >= 0) {
+                if (versions[existing] > version) {
+                    return;
+                }
+                remove(user.getId());
+            }
+            if (docCount == ids.length) {
+                grow(Math.max(64, docCount * 2));
+            }
+            int docNo = docCount++;
+            ids[docNo] = user.getId();
+            versions[docNo] = version;
+            names[docNo] = user.getName() == null ? "" : user.getName();
+            emails[docNo] = user.getEmail() == null ? "" : user.getEmail();
+            docById.put(user.getId(), docNo);
+            live++;
+            stringBytes += bytes(names[docNo]) + bytes(emails[docNo]);
+            index(names[docNo], docNo);
+            index(emails[docNo], docNo);
+        }
+
+        private void index(String text, int docNo) {
+            for (int start = 0; start < text.length(); start++) {
+                if (!isWordChar(text, start) || isWordChar(text, start - 1)) {
+                    continue;
+                }
+                int end = start;
+                while (isWordChar(text, end)) {
+                    end++;
+                }
+                for (int i = -(GRAM - 1); i + GRAM <= end - start; i++) {
+                    long gram = gram(text, start, i);
+                    IntList list = postings.get(gram);
+                    if (list == null) {
+                        list = new IntList();
+                        postings.put(gram, list);
+                    }
+                    list.addIfLast(docNo);
+                }
+                start = end;
+            }
+        }
+
+        void remove(Long id) {
+            int docNo = docById.remove(id);
+            if (docNo < 0) {
+                return;
+            }
+            stringBytes -= bytes(names[docNo]) + bytes(emails[docNo]);
+            names[docNo] = null;
+            emails[docNo] = null;
+            live--;
+            // Removed documents leave holes in the postings; re-pack once they dominate
+            if (docCount - live > 1024 && docCount - live > live) {
+                compact();
+            }
+        }
+
+        private void compact() {
+            List<UserSuggestion> survivors = new ArrayList<>(live);
+            for (int docNo = 0; docNo < docCount; docNo++) {
+                if (names[docNo] != null) {
+                    survivors.add(new UserSuggestion(ids[docNo], names[docNo], emails[docNo], versions[docNo]));
+                }
+            }
+            postings.clear();
+            docById.clear();
+            ids = new long[0];
+            versions = new long[0];
+            names = new String[0];
+            emails = new String[0];
+            docCount = 0;
+            live = 0;
+            stringBytes = 0;
+            load(survivors.stream());
+        }
+
+        private void grow(int capacity) {
+            ids = Arrays.copyOf(ids, capacity);
+            versions = Arrays.copyOf(versions, capacity);
+            names = Arrays.copyOf(names, capacity);
+            emails = Arrays.copyOf(emails, capacity);
+        }
+
+        void trim() {
+            postings.forEachValue(IntList::trim);
+        }
+
+        List<UserSuggestion> search(String[] words, long[] grams, int limit, int maxCandidates) {
+            IntList[] lists = new IntList[grams.length];
+            for (int i = 0; i < grams.length; i++) {
+                lists[i] = postings.get(grams[i]);
+                if (lists[i] == null) {
+                    return List.of();
+                }
+            }
+            Arrays.sort(lists, Comparator.comparingInt(list -> list.size));
+
+            // Worst match on top, so it is the one dropped when a better candidate arrives
+            PriorityQueue<Match> top = new PriorityQueue<>(limit + 1, BEST_FIRST.reversed());
+            int[] cursors = new int[lists.length];
+            IntList smallest = lists[0];
+            int verified = 0;
+            candidates:
+            for (int i = 0; i < smallest.size && verified < maxCandidates; i++) {
+                int docNo = smallest.items[i];
+                if (docNo < sortedCount && top.size() == limit && top.peek().score() == 0) {
+                    // Later sorted documents cannot beat a full page of best-score matches; only
+                    // documents added since the last bulk load are left to check
+                    i = smallest.seek(i, sortedCount) - 1;
+                    continue;
+                }
+                for (int l = 1; l < lists.length; l++) {
+                    cursors[l] = lists[l].seek(cursors[l], docNo);
+                    if (cursors[l] == lists[l].size || lists[l].items[cursors[l]] != docNo) {
+                        continue candidates;
+                    }
+                }
+                if (names[docNo] == null) {
+                    continue;
+                }
+                verified++;
+                int score = score(docNo, words);
+                if (score < 0) {
+                    continue;
+                }
+                top.add(new Match(docNo, score, names[docNo].length(), ids[docNo]));
+                if (top.size() > limit) {
+                    top.poll();
+                }
+            }
+
+            List<Match> ranked = new ArrayList<>(top);
+            ranked.sort(BEST_FIRST);
+            return ranked.stream()
+                    .map(match -> new UserSuggestion(ids[match.docNo()], names[match.docNo()],
+                            emails[match.docNo()], versions[match.docNo()]))
+                    .toList();
+        }
+
+        // Lower is better: per query word 0 = name prefix, 1 = name substring, 2 = email prefix,
+        // 3 = email substring; -1 when some query word matches nothing
+        private int score(int docNo, String[] queryWords) {
+            int total = 0;
+            for (String queryWord : queryWords) {
+                int best = quality(names[docNo], queryWord);
+                if (best != 0) {
+                    int email = quality(emails[docNo], queryWord);
+                    if (email >= 0 && (best < 0 || email + 2 < best)) {
+                        best = email + 2;
+                    }
+                }
+                if (best < 0) {
+                    return -1;
+                }
+                total += best;
+            }
+            return total;
+        }
+
+        // 0 if a word of text starts with queryWord, 1 if one contains it (three characters or more), else -1
+        private static int quality(String text, String queryWord) {
+            int length = queryWord.length();
+            int best = -1;
+            for (int i = 0; i + length <= text.length(); i++) {
+                if (!matchesAt(text, i, queryWord)) {
+                    continue;
+                }
+                // Query words are letters and digits only, so a match never spans two words
+                if (!isWordChar(text, i - 1)) {
+                    return 0;
+                }
+                if (length >= GRAM) {
+                    best = 1;
+                }
+            }
+            return best;
+        }
+
+        private static boolean matchesAt(String text, int offset, String queryWord) {
+            for (int i = 0; i < queryWord.length(); i++) {
+                if (Character.toLowerCase(text.charAt(offset + i)) != queryWord.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        long estimatedBytes() {
+            // Posting lists: object and array headers plus items; the maps: key and reference or doc
+            // number at half load; tombstones: key, reference and boxed version
+            long[] postingBytes = {0};
+            postings.forEachValue(list -> postingBytes[0] += 40 + 4L * list.items.length);
+            return stringBytes + postingBytes[0] + postings.size() * 24L + docById.size() * 24L
+                    + removedVersions.size() * 40L + 24L * ids.length;
+        }
+
+        private static long bytes(String value) {
+            return 40 + value.length();
+        }
+    }
+
+    private static final class IntList {
+        int[] items = new int[2];
+        int size;
+
+        void addIfLast(int value) {
+            if (size > 0 && items[size - 1] == value) {
+                return;
+            }
+            if (size == items.length) {
+                items = Arrays.copyOf(items, size + (size >> 1) + 1);
+            }
+            items[size++] = value;
+        }
+
+        void trim() {
+            if (items.length != size) {
+                items = Arrays.copyOf(items, size);
+            }
+        }
+
+        // Index of the first item >= value at or after from: gallops, then binary-searches
+        int seek(int from, int value) {
+            int step = 1;
+            int low = from;
+            int high = from;
+            while (high < size && items[high] < value) {
+                low = high + 1;
+                high += step;
+                step <<= 1;
+            }
+            high = Math.min(high, size);
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (items[mid] < value) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+}
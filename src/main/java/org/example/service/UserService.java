@@ -1,76 +1,399 @@
 package org.example.service;
 
+import io.micrometer.core.annotation.Timed;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.example.cache.UserCache;
+import org.example.dto.BatchCreateResponse;
+import org.example.dto.BatchItemResult;
+import org.example.dto.BulkDeleteResponse;
 import org.example.dto.CreateUserRequest;
+import org.example.dto.ImportReport;
+import org.example.dto.PatchUserRequest;
 import org.example.dto.UpdateUserRequest;
 import org.example.dto.UserDto;
+import org.example.dto.UserField;
+import org.example.dto.UserLookupResponse;
+import org.example.dto.UserPage;
+import org.example.dto.UserSearchRequest;
+import org.example.dto.UserSuggestion;
 import org.example.mappers.UserMapper;
 import org.example.model.User;
+import org.example.repository.ImportedRows;
 import org.example.repository.UserRepository;
+import org.example.search.UserSuggestIndex;
+import org.example.util.CursorCodec;
+import org.example.util.Emails;
+import org.example.util.SingleFlight;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
 
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @Transactional
+@Timed(value = "user.service", histogram = true)
 public class UserService {
 
+    private static final Set<UserField> ALL_FIELDS = EnumSet.allOf(UserField.class);
+
     private final UserRepository userRepository;
+    private final Validator validator;
+    private final UserCache userCache;
+    private final UserSuggestIndex suggestIndex;
+    private final ApplicationEventPublisher events;
+    private final SingleFlight<String, UserDto> byEmailLookups = new SingleFlight<>();
 
     @Autowired
-    public UserService(UserRepository userRepository) {
+    public UserService(UserRepository userRepository, Validator validator, UserCache userCache,
+                       UserSuggestIndex suggestIndex, ApplicationEventPublisher events) {
         this.userRepository = userRepository;
+        this.validator = validator;
+        this.userCache = userCache;
+        this.suggestIndex = suggestIndex;
+        this.events = events;
     }
 
     public UserDto createUser(CreateUserRequest request) {
-        if (userRepository.existsByEmail(request.getEmail())) {
-            throw new IllegalArgumentException("User with email " + request.getEmail() + " already exists");
+        // Single statement: the unique index on email decides, so there is no
+        // check-then-insert window for concurrent creates to slip through
+        String email = Emails.normalize(request.getEmail());
+        User user = new User(request.getName(), email, request.getAge());
+        User savedUser = userRepository.insertIfEmailAbsent(user)
+                .orElseThrow(() -> new IllegalArgumentException(
+                        "User with email " + email + " already exists"));
+        suggestIndex.putAfterCommit(UserMapper.toSuggestion(savedUser));
+        return UserMapper.toDto(savedUser);
+    }
+
+    /**
+     * Creates many users at once. Invalid items and emails that already exist (in the
+     * database, earlier in the same batch, or committed concurrently) are rejected
+     * individually; the rest are inserted with one statement that skips conflicting emails.
+     */
+    public BatchCreateResponse createUsers(List<CreateUserRequest> requests) {
+        BatchItemResult[] results = new BatchItemResult[requests.size()];
+        List<User> candidates = new ArrayList<>();
+        List<Integer> candidateIndexes = new ArrayList<>();
+        Set<String> emails = new HashSet<>();
+
+        for (int i = 0; i < requests.size(); i++) {
+            CreateUserRequest request = requests.get(i);
+            if (request == null) {
+                results[i] = BatchItemResult.rejected(i, "Request must not be null");
+                continue;
+            }
+            Set<ConstraintViolation<CreateUserRequest>> violations = validator.validate(request);
+            if (!violations.isEmpty()) {
+                results[i] = BatchItemResult.rejected(i, violations.stream()
+                        .map(ConstraintViolation::getMessage)
+                        .sorted()
+                        .collect(Collectors.joining("; ")));
+                continue;
+            }
+            String email = Emails.normalize(request.getEmail());
+            if (!emails.add(email)) {
+                results[i] = BatchItemResult.rejected(i, "Duplicate email " + email + " in batch");
+                continue;
+            }
+            candidates.add(new User(request.getName(), email, request.getAge()));
+            candidateIndexes.add(i);
         }
 
-        User user = new User(request.getName(), request.getEmail(), request.getAge());
-        User savedUser = userRepository.save(user);
-        return UserMapper.toDto(savedUser);
+        // Rows the statement skipped hit an existing email, whether it was there before or
+        // committed concurrently; no check-then-insert window fails the whole batch
+        List<User> inserted = userRepository.insertAllIfEmailAbsent(candidates);
+        Set<Long> insertedIds = inserted.stream().map(User::getId).collect(Collectors.toSet());
+        for (int i = 0; i < candidates.size(); i++) {
+            User user = candidates.get(i);
+            int index = candidateIndexes.get(i);
+            if (insertedIds.contains(user.getId())) {
+                suggestIndex.putAfterCommit(UserMapper.toSuggestion(user));
+                results[index] = BatchItemResult.created(index, UserMapper.toDto(user));
+            } else {
+                results[index] = BatchItemResult.rejected(index,
+                        "User with email " + user.getEmail() + " already exists");
+            }
+        }
+        return new BatchCreateResponse(inserted.size(), requests.size() - inserted.size(), Arrays.asList(results));
     }
 
-    @Transactional(readOnly = true)
+    /**
+     * Bulk-loads users from CSV ({@code name,email,age} with a header line) via
+     * PostgreSQL COPY. Rows with invalid fields or emails that already exist are
+     * counted as rejected rather than failing the import.
+     */
+    public ImportReport importUsers(Reader csv) {
+        long start = System.nanoTime();
+        long rowsRead = userRepository.copyIntoImportStaging(csv);
+        ImportedRows merged = userRepository.mergeImportStaging();
+        long imported = merged.count();
+        if (imported > 0) {
+            // Imports can be large; the typeahead index reads the new rows back once they are committed
+            events.publishEvent(new UsersImportedEvent(merged.firstId(), merged.lastId()));
+        }
+        long elapsedNanos = Math.max(System.nanoTime() - start, 1);
+
+        long rowsPerSecond = rowsRead * 1_000_000_000L / elapsedNanos;
+        return new ImportReport(rowsRead, imported, rowsRead - imported, elapsedNanos / 1_000_000, rowsPerSecond);
+    }
+
+    // SUPPORTS: cache hits must not open a transaction or borrow a connection;
+    // on a miss the repository call runs in its own read-only transaction
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public UserDto getUserById(Long id) {
-        User user = userRepository.findById(id)
-                .orElseThrow(() -> new IllegalArgumentException("User not found with id: " + id));
-        return UserMapper.toDto(user);
+        return userCache.get(id, key -> userRepository.findDtoById(key)
+                .orElseThrow(() -> new IllegalArgumentException("User not found with id: " + key)));
+    }
+
+    /** Case-insensitive; concurrent lookups of the same normalized email share one query. */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public UserDto getUserByEmail(String email) {
+        if (email == null || email.isBlank()) {
+            throw new IllegalArgumentException("Email must not be blank");
+        }
+        String normalized = Emails.normalize(email);
+        return byEmailLookups.execute(normalized, () -> userRepository.findDtoByEmail(normalized)
+                .orElseThrow(() -> new IllegalArgumentException("User not found with email: " + normalized)));
+    }
+
+    /** In-flight lookups by email; the meter reads {@link SingleFlight#collapsed()} from it directly. */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public SingleFlight<String, UserDto> getByEmailLookups() {
+        return byEmailLookups;
     }
 
     @Transactional(readOnly = true)
-    public List<UserDto> getAllUsers() {
-        return userRepository.findAll()
-                .stream()
-                .map(UserMapper::toDto)
-                .collect(Collectors.toList());
+    public UserLookupResponse getUsersByIds(List<Long> ids) {
+        Set<Long> requested = new LinkedHashSet<>(ids);
+        Map<Long, UserDto> found = new HashMap<>(userCache.getAllPresent(requested));
+
+        List<Long> misses = new ArrayList<>();
+        for (Long id : requested) {
+            if (!found.containsKey(id)) {
+                misses.add(id);
+            }
+        }
+        for (UserDto user : userRepository.findAllByIdAny(misses)) {
+            found.put(user.getId(), user);
+        }
+
+        List<UserDto> users = new ArrayList<>(found.size());
+        List<Long> missing = new ArrayList<>();
+        for (Long id : requested) {
+            UserDto user = found.get(id);
+            if (user != null) {
+                users.add(user);
+            } else {
+                missing.add(id);
+            }
+        }
+        return new UserLookupResponse(users, missing);
     }
 
-    public UserDto updateUser(Long id, UpdateUserRequest request) {
-        User user = userRepository.findById(id)
-                .orElseThrow(() -> new IllegalArgumentException("User not found with id: " + id));
+    @Transactional(readOnly = true)
+    public UserPage getUsers(String cursor, int limit) {
+        return getUsers(cursor, limit, ALL_FIELDS);
+    }
+
+    /**
+     * Keyset page reading only the columns behind {@code fields}, which must include
+     * {@link UserField#ID} for the cursor ({@link UserField#parse} always adds it).
+     */
+    @Transactional(readOnly = true)
+    public UserPage getUsers(String cursor, int limit, Set<UserField> fields) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Page size must be positive");
+        }
+        long afterId = cursor == null ? 0L : CursorCodec.decode(cursor);
+
+        // One extra row tells us whether another page exists without a count query
+        List<UserDto> rows = fields.containsAll(ALL_FIELDS)
+                ? userRepository.findDtosAfterId(afterId, Limit.of(limit + 1))
+                : userRepository.findFieldsAfterId(fields, afterId, limit + 1);
+        return toPage(rows, limit);
+    }
+
+    /**
+     * Keyset-paginated search; every filter is served by an index (see {@code init.sql}).
+     * Substring matches need at least three characters, the trigram index's unit.
+     */
+    @Transactional(readOnly = true)
+    public UserPage searchUsers(UserSearchRequest criteria, String cursor, int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Page size must be positive");
+        }
+        String name = criteria.getName();
+        if (name != null && name.isBlank()) {
+            throw new IllegalArgumentException("Name filter must not be blank");
+        }
+        if (name != null && criteria.getMatch() != UserSearchRequest.Match.PREFIX && name.length() < 3) {
+            throw new IllegalArgumentException("Name substring must be at least 3 characters");
+        }
+        if (criteria.getMinAge() != null && criteria.getMaxAge() != null
+                && criteria.getMinAge() > criteria.getMaxAge()) {
+            throw new IllegalArgumentException("minAge must not exceed maxAge");
+        }
+        if (criteria.getCreatedFrom() != null && criteria.getCreatedTo() != null
+                && !criteria.getCreatedFrom().isBefore(criteria.getCreatedTo())) {
+            throw new IllegalArgumentException("createdFrom must be before createdTo");
+        }
+        long afterId = cursor == null ? 0L : CursorCodec.decode(cursor);
+
+        List<UserDto> rows = userRepository.search(criteria, afterId, limit + 1);
+        return toPage(rows, limit);
+    }
+
+    private static UserPage toPage(List<UserDto> rows, int limit) {
+        boolean hasMore = rows.size() > limit;
+        List<UserDto> items = hasMore ? new ArrayList<>(rows.subList(0, limit)) : rows;
+
+        String nextCursor = hasMore ? CursorCodec.encode(items.get(items.size() - 1).getId()) : null;
+        return new UserPage(items, nextCursor);
+    }
 
-        if (!user.getEmail().equals(request.getEmail()) &&
-                userRepository.existsByEmail(request.getEmail())) {
-            throw new IllegalArgumentException("User with email " + request.getEmail() + " already exists");
+    /**
+     * Typeahead over names and emails from the in-memory index; never touches the database.
+     * See {@link UserSuggestIndex} for matching and ranking.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<UserSuggestion> suggestUsers(String query, int limit) {
+        if (query == null || query.isBlank()) {
+            throw new IllegalArgumentException("Query must not be blank");
         }
+        if (limit < 1) {
+            throw new IllegalArgumentException("Limit must be positive");
+        }
+        return suggestIndex.suggest(query, limit);
+    }
 
-        user.setName(request.getName());
-        user.setEmail(request.getEmail());
-        user.setAge(request.getAge());
+    /** Reloads the typeahead index from the table; runs once the application has started. */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuildSuggestIndex() {
+        suggestIndex.rebuild(userRepository::streamAllAsSuggestions);
+    }
 
-        User updatedUser = userRepository.save(user);
+    // The import's own transaction has completed; reading the new rows needs a fresh one
+    @TransactionalEventListener
+    @Transactional(readOnly = true, propagation = Propagation.REQUIRES_NEW)
+    public void onUsersImported(UsersImportedEvent event) {
+        try (Stream<UserSuggestion> users =
+                     userRepository.streamSuggestionsByIdBetween(event.firstId(), event.lastId())) {
+            suggestIndex.putAll(users);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public void exportUsers(Consumer<UserDto> sink) {
+        try (Stream<UserDto> users = userRepository.streamAllAsDto()) {
+            users.forEach(sink);
+        }
+    }
+
+    public UserDto updateUser(Long id, UpdateUserRequest request) {
+        return updateUser(id, request, null);
+    }
+
+    /**
+     * Updates a user in one conditional statement. When {@code expectedVersion} is given
+     * and the stored version differs, fails with {@link OptimisticLockingFailureException}.
+     */
+    public UserDto updateUser(Long id, UpdateUserRequest request, Long expectedVersion) {
+        String email = Emails.normalize(request.getEmail());
+        User updatedUser;
+        try {
+            updatedUser = userRepository.updateReturning(
+                    id, request.getName(), email, request.getAge(), expectedVersion)
+                    .orElseThrow(() -> noRowUpdated(id, expectedVersion));
+        } catch (DuplicateKeyException e) {
+            throw new IllegalArgumentException("User with email " + email + " already exists");
+        }
+        userCache.evictAfterCommit(id);
+        suggestIndex.putAfterCommit(UserMapper.toSuggestion(updatedUser));
         return UserMapper.toDto(updatedUser);
     }
 
+    /**
+     * Applies a sparse update touching only the supplied columns. The unique index on
+     * email is only involved when the patch actually changes the email.
+     */
+    public UserDto patchUser(Long id, PatchUserRequest request, Long expectedVersion) {
+        if (request.isEmpty()) {
+            UserDto current = getUserById(id);
+            if (expectedVersion != null && !expectedVersion.equals(current.getVersion())) {
+                throw noRowUpdated(id, expectedVersion);
+            }
+            return current;
+        }
+        String email = Emails.normalize(request.getEmail());
+        User patchedUser;
+        try {
+            patchedUser = userRepository.patchReturning(
+                    id, request.getName(), email, request.getAge(), expectedVersion)
+                    .orElseThrow(() -> noRowUpdated(id, expectedVersion));
+        } catch (DuplicateKeyException e) {
+            throw new IllegalArgumentException("User with email " + email + " already exists");
+        }
+        userCache.evictAfterCommit(id);
+        suggestIndex.putAfterCommit(UserMapper.toSuggestion(patchedUser));
+        return UserMapper.toDto(patchedUser);
+    }
+
+    // Only reached on the failure path, so the extra lookup costs nothing for successful updates
+    private RuntimeException noRowUpdated(Long id, Long expectedVersion) {
+        if (expectedVersion != null && userRepository.existsById(id)) {
+            return new OptimisticLockingFailureException(
+                    "User " + id + " was modified concurrently; expected version " + expectedVersion);
+        }
+        return new IllegalArgumentException("User not found with id: " + id);
+    }
+
     public void deleteUser(Long id) {
-        if (!userRepository.existsById(id)) {
-            throw new IllegalArgumentException("User not found with id: " + id);
+        Long version = userRepository.deleteReturningVersion(id)
+                .orElseThrow(() -> new IllegalArgumentException("User not found with id: " + id));
+        userCache.evictAfterCommit(id);
+        suggestIndex.removeAfterCommit(id, version);
+    }
+
+    public BulkDeleteResponse deleteUsers(List<Long> ids) {
+        Set<Long> requested = new LinkedHashSet<>(ids);
+        Map<Long, Long> deleted = userRepository.deleteAllByIdReturning(requested);
+
+        List<Long> deletedIds = new ArrayList<>(deleted.size());
+        List<Long> missingIds = new ArrayList<>();
+        for (Long id : requested) {
+            Long version = deleted.get(id);
+            if (version != null) {
+                deletedIds.add(id);
+                userCache.evictAfterCommit(id);
+                suggestIndex.removeAfterCommit(id, version);
+            } else {
+                missingIds.add(id);
+            }
         }
-        userRepository.deleteById(id);
+        return new BulkDeleteResponse(deletedIds, missingIds);
     }
 
 }
@@ -0,0 +1,8 @@
+package org.example.service;
+
+/**
+ * Published by {@link UserService#importUsers} when an import inserted rows; they all have
+ * ids between {@code firstId} and {@code lastId}.
+ */
+public record UsersImportedEvent(long firstId, long lastId) {
+}
@@ -0,0 +1,197 @@
+package org.example.util;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.apache.logging.log4j.util.Unbox.box;
+
+/**
+ * {@link DataSource} that reports every statement executed on its connections to
+ * {@link QueryCounter}. Connections and statements are thin JDK proxies over the pooled
+ * ones: executions record the statement kind, a round-trip and update counts as rows.
+ * {@code unwrap} still reaches the pool and the driver.
+ *
+ * <p>Counting rows read means proxying every {@code ResultSet} too, one reflective call per
+ * {@code next()}, which adds up on streamed exports and index rebuilds. That only happens
+ * with {@code countReadRows}, which defaults to the {@value #COUNT_READ_ROWS_PROPERTY}
+ * system property: on in tests and under {@code --debug}, off in production.
+ *
+ * <p>Executions slower than the slow-query threshold are logged with their SQL (bind
+ * placeholders only, never values) to the {@code org.example.sql.slow} logger.
+ */
+public class CountingDataSource extends DelegatingDataSource {
+    private static final Logger slowQueries = LogManager.getLogger("org.example.sql.slow");
+
+    public static final Duration DEFAULT_SLOW_QUERY_THRESHOLD = Duration.ofMillis(200);
+
+    public static final String COUNT_READ_ROWS_PROPERTY = "users.query-count.read-rows";
+
+    private final long slowQueryNanos;
+    private final boolean countReadRows;
+
+    public CountingDataSource(DataSource target) {
+        this(target, DEFAULT_SLOW_QUERY_THRESHOLD, Boolean.getBoolean(COUNT_READ_ROWS_PROPERTY));
+    }
+
+    public CountingDataSource(DataSource target, Duration slowQueryThreshold, boolean countReadRows) {
+        super(target);
+        this.slowQueryNanos = slowQueryThreshold.toNanos();
+        this.countReadRows = countReadRows;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrap(Connection.class, new ConnectionHandler(super.getConnection(), slowQueryNanos, countReadRows));
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrap(Connection.class,
+                new ConnectionHandler(super.getConnection(username, password), slowQueryNanos, countReadRows));
+    }
+
+    private static <T> T wrap(Class<T> type, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(CountingDataSource.class.getClassLoader(), new Class<?>[]{type}, handler));
+    }
+
+    private static Object invoke(Object proxy, Object target, Method method, Object[] args) throws Throwable {
+        // Proxies are compared by identity, as pools and Hibernate's resource registry expect
+        switch (method.getName()) {
+            case "equals" -> {
+                return proxy == args[0];
+            }
+            case "hashCode" -> {
+                return System.identityHashCode(proxy);
+            }
+            default -> {
+            }
+        }
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private record ConnectionHandler(Connection connection, long slowQueryNanos, boolean countReadRows)
+            implements InvocationHandler {
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = CountingDataSource.invoke(proxy, connection, method, args);
+            return switch (method.getName()) {
+                case "createStatement" -> wrap(Statement.class,
+                        new StatementHandler((Statement) result, null, slowQueryNanos, countReadRows));
+                case "prepareStatement", "prepareCall" -> wrap(method.getReturnType(),
+                        new StatementHandler((Statement) result, (String) args[0], slowQueryNanos, countReadRows));
+                default -> result;
+            };
+        }
+    }
+
+    private static final class StatementHandler implements InvocationHandler {
+        private final Statement statement;
+        private final String preparedSql;
+        private final long slowQueryNanos;
+        private final boolean countReadRows;
+        private String batchSql;
+        private int batched;
+
+        StatementHandler(Statement statement, String preparedSql, long slowQueryNanos, boolean countReadRows) {
+            this.statement = statement;
+            this.preparedSql = preparedSql;
+            this.slowQueryNanos = slowQueryNanos;
+            this.countReadRows = countReadRows;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            switch (name) {
+                case "addBatch" -> {
+                    batched++;
+                    if (args != null && batchSql == null) {
+                        batchSql = (String) args[0];
+                    }
+                }
+                case "clearBatch" -> {
+                    batched = 0;
+                    batchSql = null;
+                }
+                default -> {
+                }
+            }
+            if (!name.startsWith("execute")) {
+                Object result = CountingDataSource.invoke(proxy, statement, method, args);
+                return countReadRows && result instanceof ResultSet resultSet && name.equals("getResultSet")
+                        ? wrap(ResultSet.class, new ResultSetHandler(resultSet))
+                        : result;
+            }
+
+            boolean batch = name.endsWith("Batch");
+            String sql = batch ? (preparedSql != null ? preparedSql : batchSql)
+                    : args != null && args.length > 0 ? (String) args[0] : preparedSql;
+            long start = System.nanoTime();
+            Object result;
+            try {
+                result = CountingDataSource.invoke(proxy, statement, method, args);
+            } finally {
+                long elapsed = System.nanoTime() - start;
+                if (elapsed >= slowQueryNanos && batch) {
+                    slowQueries.warn("Slow batch of {} statements took {} ms: {}",
+                            box(batched), box(TimeUnit.NANOSECONDS.toMillis(elapsed)), sql);
+                } else if (elapsed >= slowQueryNanos) {
+                    slowQueries.warn("Slow statement took {} ms: {}", box(TimeUnit.NANOSECONDS.toMillis(elapsed)), sql);
+                }
+            }
+
+            if (batch) {
+                QueryCounter.recordStatements(sql, batched);
+                if (result instanceof int[] counts) {
+                    for (int count : counts) {
+                        QueryCounter.recordRows(count);
+                    }
+                } else if (result instanceof long[] counts) {
+                    for (long count : counts) {
+                        QueryCounter.recordRows(count);
+                    }
+                }
+                batched = 0;
+                batchSql = null;
+            } else {
+                QueryCounter.recordStatements(sql, 1);
+                if (result instanceof Number rows) {
+                    QueryCounter.recordRows(rows.longValue());
+                }
+            }
+            return countReadRows && result instanceof ResultSet resultSet
+                    ? wrap(ResultSet.class, new ResultSetHandler(resultSet))
+                    : result;
+        }
+    }
+
+    private record ResultSetHandler(ResultSet resultSet) implements InvocationHandler {
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = CountingDataSource.invoke(proxy, resultSet, method, args);
+            if (Boolean.TRUE.equals(result) && method.getName().equals("next")) {
+                QueryCounter.recordRows(1);
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package org.example.util;
+
+import java.util.Locale;
+
+/**
+ * The canonical form emails are stored and looked up in: trimmed and lower-cased, so
+ * {@code John@Example.com} and {@code john@example.com} are the same user. Matches the
+ * {@code lower(email)} unique index in {@code init.sql}.
+ */
+public final class Emails {
+
+    private Emails() {
+    }
+
+    public static String normalize(String email) {
+        return email == null ? null : email.trim().toLowerCase(Locale.ROOT);
+    }
+}
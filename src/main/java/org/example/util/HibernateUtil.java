@@ -1,24 +1,119 @@
 package org.example.util;
 
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
 import org.hibernate.SessionFactory;
 import org.hibernate.boot.Metadata;
 import org.hibernate.boot.MetadataSources;
 import org.hibernate.boot.registry.StandardServiceRegistry;
 import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.cfg.JdbcSettings;
+import org.hibernate.engine.jdbc.connections.internal.DatasourceConnectionProviderImpl;
 import org.example.model.User;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import org.hibernate.cfg.Configuration;
 
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Lazily provides the {@link SessionFactory} used by {@code UserDaoPostgreSQL}.
+ *
+ * <p>Inside the Spring application the factory behind Spring's
+ * {@code EntityManagerFactory} is shared via {@link #useSharedSessionFactory}, so
+ * there is one metadata build, one pool and one schema pass. Standalone callers
+ * (batch tools, tests) get a factory built from {@code hibernate.cfg.xml} on first use.
+ */
 public class HibernateUtil {
     private static final Logger logger = LogManager.getLogger(HibernateUtil.class);
 
-    private static SessionFactory sessionFactory;
+    // Same scripts, in the same order, as spring.sql.init.schema-locations
+    private static final List<String> MIGRATIONS =
+            List.of("db/email-lower-index.sql", "db/sequence-increment.sql", "db/search-statistics.sql");
 
-    static {
+    private static volatile SessionFactory sessionFactory;
+    private static HikariDataSource dataSource;
+    private static Supplier<SessionFactory> sharedSessionFactory;
+
+    public static SessionFactory getSessionFactory() {
+        SessionFactory factory = sessionFactory;
+        if (factory == null) {
+            synchronized (HibernateUtil.class) {
+                factory = sessionFactory;
+                if (factory == null) {
+                    try {
+                        factory = sharedSessionFactory != null ? resolveSharedSessionFactory() : buildSessionFactory();
+                        sessionFactory = factory;
+                    } catch (Exception e) {
+                        logger.error("Failed to create SessionFactory", e);
+                        throw new ExceptionInInitializerError(e);
+                    }
+                }
+            }
+        }
+        return factory;
+    }
+
+    /**
+     * Makes {@link #getSessionFactory()} return the factory supplied by the host
+     * application instead of building its own. The supplier is called on first use;
+     * the shared factory is never closed by {@link #shutdown()}.
+     */
+    public static synchronized void useSharedSessionFactory(Supplier<SessionFactory> supplier) {
+        shutdown();
+        sharedSessionFactory = supplier;
+        logger.info("HibernateUtil will share the application's SessionFactory");
+    }
+
+    public static synchronized void releaseSharedSessionFactory() {
+        shutdown();
+        sharedSessionFactory = null;
+    }
+
+    // With deferred bootstrap the supplier can block until Spring's background build finishes
+    private static SessionFactory resolveSharedSessionFactory() {
+        long start = System.nanoTime();
+        SessionFactory factory = sharedSessionFactory.get();
+        logger.info("Shared SessionFactory resolved in {} ms",
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return factory;
+    }
+
+    private static SessionFactory buildSessionFactory() {
+        long start = System.nanoTime();
+        Map<String, Object> settings = PooledDataSources.loadSettings();
+        HikariDataSource pool = PooledDataSources.create(settings);
         try {
-            StandardServiceRegistry standardRegistry = new StandardServiceRegistryBuilder()
-                    .configure("hibernate.cfg.xml")
+            // Connections come from the pool; Hibernate must not open its own or pass credentials
+            settings.keySet().removeIf(key -> key.startsWith(PooledDataSources.CONNECTION_PREFIX)
+                    || key.startsWith(PooledDataSources.JAKARTA_CONNECTION_PREFIX)
+                    || key.startsWith(PooledDataSources.HIKARI_PREFIX));
+            // A provider instance rather than the deprecated hibernate.connection.datasource; the
+            // jakarta.persistence.nonJtaDataSource name is only honoured by JPA bootstrap
+            DatasourceConnectionProviderImpl connectionProvider = new DatasourceConnectionProviderImpl();
+            connectionProvider.setDataSource(new CountingDataSource(pool));
+            settings.put(JdbcSettings.CONNECTION_PROVIDER, connectionProvider);
+            settings.put(AvailableSettings.CONNECTION_PROVIDER_DISABLES_AUTOCOMMIT, !pool.isAutoCommit());
+            // The Spring application runs these through spring.sql.init; standalone callers
+            // reach the same hbm2ddl update, sequence check and email lookups, so they need them too
+            MIGRATIONS.forEach(migration -> applyMigration(pool, migration));
+
+            // clearSettings(): drop the hibernate.* system properties the builder picks up by itself
+            StandardServiceRegistryBuilder registryBuilder = new StandardServiceRegistryBuilder();
+            registryBuilder.clearSettings();
+            StandardServiceRegistry standardRegistry = registryBuilder
+                    .applySettings(settings)
                     .build();
 
             MetadataSources metadataSources = new MetadataSources(standardRegistry);
@@ -26,49 +121,56 @@ public class HibernateUtil {
 
             Metadata metadata = metadataSources.getMetadataBuilder().build();
 
-            sessionFactory = metadata.getSessionFactoryBuilder().build();
+            SessionFactory factory = metadata.getSessionFactoryBuilder().build();
+            dataSource = pool;
 
-            logger.info("SessionFactory created successfully");
-
-        } catch (Exception e) {
-            logger.error("Failed to create SessionFactory", e);
-            System.err.println("Failed to initialize Hibernate: " + e.getMessage());
+            logger.info("SessionFactory created in {} ms with pool {} (max {} connections)",
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start),
+                    pool.getPoolName(), pool.getMaximumPoolSize());
+            return factory;
+        } catch (RuntimeException e) {
+            pool.close();
+            throw e;
         }
     }
 
-    public static SessionFactory getSessionFactory() {
-        if (sessionFactory == null) {
-            try {
-                Configuration configuration = new Configuration();
-
-                configuration.configure();
-
-                String url = System.getProperty("hibernate.connection.url");
-                String username = System.getProperty("hibernate.connection.username");
-                String password = System.getProperty("hibernate.connection.password");
-
-                if (url != null) {
-                    configuration.setProperty("hibernate.connection.url", url);
-                }
-                if (username != null) {
-                    configuration.setProperty("hibernate.connection.username", username);
-                }
-                if (password != null) {
-                    configuration.setProperty("hibernate.connection.password", password);
-                }
-
-                sessionFactory = configuration.buildSessionFactory();
-            } catch (Exception e) {
-                throw new ExceptionInInitializerError(e);
+    private static void applyMigration(DataSource pool, String resource) {
+        String sql;
+        try (InputStream in = HibernateUtil.class.getClassLoader().getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IllegalStateException("Missing migration " + resource);
+            }
+            sql = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        try (Connection connection = pool.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+            if (!connection.getAutoCommit()) {
+                connection.commit();
             }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Failed to apply " + resource, e);
         }
-        return sessionFactory;
     }
 
-    public static void shutdown() {
+    /** Live pool statistics (active, idle, waiting threads) or {@code null} before initialization. */
+    public static synchronized HikariPoolMXBean getPoolStats() {
+        return dataSource != null ? dataSource.getHikariPoolMXBean() : null;
+    }
+
+    public static synchronized void shutdown() {
         if (sessionFactory != null) {
-            sessionFactory.close();
-            logger.info("SessionFactory closed");
+            // A shared factory belongs to the host application; only drop the reference
+            if (sharedSessionFactory == null) {
+                sessionFactory.close();
+                logger.info("SessionFactory closed");
+            }
+            sessionFactory = null;
+        }
+        if (dataSource != null) {
+            dataSource.close();
+            dataSource = null;
         }
     }
 
@@ -78,6 +180,5 @@ public class HibernateUtil {
 
     public static void reconfigure() {
         shutdown();
-        sessionFactory = null;
     }
 }
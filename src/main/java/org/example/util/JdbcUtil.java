@@ -0,0 +1,56 @@
+package org.example.util;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.hibernate.cfg.AvailableSettings;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Lazily provides the {@link DataSource} used by {@code UserDaoJdbc}: the application's
+ * pool when one is shared via {@link #useSharedDataSource}, otherwise a pool of its own
+ * configured from {@code hibernate.cfg.xml} like {@link HibernateUtil}'s.
+ */
+public class JdbcUtil {
+    private static final Logger logger = LogManager.getLogger(JdbcUtil.class);
+
+    private static volatile DataSource dataSource;
+    private static HikariDataSource ownDataSource;
+
+    public static DataSource getDataSource() {
+        DataSource current = dataSource;
+        if (current == null) {
+            synchronized (JdbcUtil.class) {
+                current = dataSource;
+                if (current == null) {
+                    Map<String, Object> settings = PooledDataSources.loadSettings();
+                    // Every DAO call is a single statement, so let the driver commit it
+                    settings.put(AvailableSettings.AUTOCOMMIT, "true");
+                    settings.put(PooledDataSources.HIKARI_PREFIX + "poolName", "jdbc-dao");
+                    ownDataSource = PooledDataSources.create(settings);
+                    logger.info("DataSource created with pool {} (max {} connections)",
+                            ownDataSource.getPoolName(), ownDataSource.getMaximumPoolSize());
+                    current = new CountingDataSource(ownDataSource);
+                    dataSource = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    public static synchronized void useSharedDataSource(DataSource shared) {
+        shutdown();
+        dataSource = shared;
+    }
+
+    public static synchronized void shutdown() {
+        if (ownDataSource != null) {
+            ownDataSource.close();
+            ownDataSource = null;
+            logger.info("DataSource closed");
+        }
+        dataSource = null;
+    }
+}
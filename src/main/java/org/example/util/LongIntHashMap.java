@@ -0,0 +1,148 @@
+package org.example.util;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash map from primitive {@code long} keys to non-negative {@code int}
+ * values, the primitive counterpart of {@link LongObjectHashMap}: neither keys nor values
+ * are boxed. {@link #get} returns {@code -1} for a missing key. Not thread-safe.
+ */
+public final class LongIntHashMap {
+
+    private static final int MIN_CAPACITY = 16;
+    private static final int EMPTY = -1;
+
+    private long[] keys;
+    private int[] values;
+    private int mask;
+    private int size;
+    private int resizeAt;
+
+    public LongIntHashMap() {
+        this(MIN_CAPACITY);
+    }
+
+    public LongIntHashMap(int expectedSize) {
+        allocate(tableSizeFor(expectedSize));
+    }
+
+    public int get(long key) {
+        int slot = slot(key);
+        int value;
+        while ((value = values[slot]) != EMPTY) {
+            if (keys[slot] == key) {
+                return value;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return EMPTY;
+    }
+
+    /** Maps {@code key} to {@code value} and returns the previous value, or {@code -1}. */
+    public int put(long key, int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Negative values are not supported: " + value);
+        }
+        int slot = slot(key);
+        int existing;
+        while ((existing = values[slot]) != EMPTY) {
+            if (keys[slot] == key) {
+                values[slot] = value;
+                return existing;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size > resizeAt) {
+            rehash(keys.length << 1);
+        }
+        return EMPTY;
+    }
+
+    /** Removes {@code key} and returns its value, or {@code -1} if it was absent. */
+    public int remove(long key) {
+        int slot = slot(key);
+        int value;
+        while ((value = values[slot]) != EMPTY) {
+            if (keys[slot] == key) {
+                shiftBack(slot);
+                size--;
+                return value;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return EMPTY;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        Arrays.fill(values, EMPTY);
+        size = 0;
+    }
+
+    // Close the gap left at 'free' by moving back later entries of the same probe run
+    private void shiftBack(int free) {
+        int slot = free;
+        while (true) {
+            slot = (slot + 1) & mask;
+            if (values[slot] == EMPTY) {
+                break;
+            }
+            int home = slot(keys[slot]);
+            // Move the entry unless its home lies cyclically in (free, slot]
+            boolean homeBetween = free <= slot ? (free < home && home <= slot) : (free < home || home <= slot);
+            if (!homeBetween) {
+                keys[free] = keys[slot];
+                values[free] = values[slot];
+                free = slot;
+            }
+        }
+        values[free] = EMPTY;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldValues.length; i++) {
+            if (oldValues[i] != EMPTY) {
+                int slot = slot(oldKeys[i]);
+                while (values[slot] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new int[capacity];
+        Arrays.fill(values, EMPTY);
+        mask = capacity - 1;
+        resizeAt = capacity / 2;
+    }
+
+    private int slot(long key) {
+        // Fibonacci hashing spreads sequential ids across the table
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    private static int tableSizeFor(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(MIN_CAPACITY, expectedSize * 2) - 1) << 1;
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Expected size too large: " + expectedSize);
+        }
+        return capacity;
+    }
+}
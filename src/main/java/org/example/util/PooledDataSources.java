@@ -0,0 +1,73 @@
+package org.example.util;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.Metrics;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.cfg.JdbcSettings;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Builds HikariCP pools for the standalone DAO engines from {@code hibernate.cfg.xml},
+ * so both engines are configured in one place and honour the same system properties.
+ */
+public final class PooledDataSources {
+
+    // Pool settings use HikariConfig property names under this prefix, e.g.
+    // hibernate.hikari.maximumPoolSize or hibernate.hikari.dataSource.prepareThreshold
+    static final String HIKARI_PREFIX = "hibernate.hikari.";
+
+    static final String CONNECTION_PREFIX = "hibernate.connection.";
+
+    static final String JAKARTA_CONNECTION_PREFIX = "jakarta.persistence.jdbc.";
+
+    private PooledDataSources() {
+    }
+
+    /** Settings from {@code hibernate.cfg.xml}, overridden by {@code hibernate.*} system properties. */
+    public static Map<String, Object> loadSettings() {
+        Map<String, Object> settings = new HashMap<>(
+                new StandardServiceRegistryBuilder().configure("hibernate.cfg.xml").getSettings());
+        for (String name : System.getProperties().stringPropertyNames()) {
+            if (name.startsWith("hibernate.")) {
+                settings.put(name, System.getProperty(name));
+            }
+        }
+        return settings;
+    }
+
+    public static HikariDataSource create(Map<String, Object> settings) {
+        Properties properties = new Properties();
+        settings.forEach((key, value) -> {
+            if (key.startsWith(HIKARI_PREFIX)) {
+                properties.setProperty(key.substring(HIKARI_PREFIX.length()), String.valueOf(value));
+            }
+        });
+
+        HikariConfig config = new HikariConfig(properties);
+        config.setJdbcUrl(String.valueOf(connectionSetting(settings, JdbcSettings.JAKARTA_JDBC_URL, "url")));
+        config.setUsername((String) connectionSetting(settings, JdbcSettings.JAKARTA_JDBC_USER, "username"));
+        config.setPassword((String) connectionSetting(settings, JdbcSettings.JAKARTA_JDBC_PASSWORD, "password"));
+        Object driver = connectionSetting(settings, JdbcSettings.JAKARTA_JDBC_DRIVER, "driver_class");
+        if (driver != null) {
+            config.setDriverClassName(String.valueOf(driver));
+        }
+        if (settings.get(AvailableSettings.AUTOCOMMIT) != null) {
+            config.setAutoCommit(Boolean.parseBoolean(String.valueOf(settings.get(AvailableSettings.AUTOCOMMIT))));
+        }
+        // Pool usage and connection wait time, published once an application registry joins the global one
+        config.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(Metrics.globalRegistry));
+        return new HikariDataSource(config);
+    }
+
+    // hibernate.cfg.xml and the -Dhibernate.connection.* overrides still use the legacy names
+    private static Object connectionSetting(Map<String, Object> settings, String jakartaName, String legacyName) {
+        Object value = settings.get(jakartaName);
+        return value != null ? value : settings.get(CONNECTION_PREFIX + legacyName);
+    }
+}
@@ -0,0 +1,102 @@
+package org.example.util;
+
+import java.util.function.Supplier;
+
+/**
+ * Per-thread tally of the SQL issued through a {@link CountingDataSource}: statements
+ * by kind, rows read or affected, and round-trips (a JDBC batch is one round-trip for
+ * many statements). Totals only ever grow; measure an operation by taking the
+ * difference of two {@link #snapshot()}s, or with {@link #measure}.
+ *
+ * <p>Counts are thread-confined; work handed to other threads is counted on those
+ * threads. Rows read are only counted when the data source counts them (see
+ * {@link CountingDataSource}); otherwise {@code rows} holds affected rows only.
+ */
+public final class QueryCounter {
+
+    private static final ThreadLocal<Counts> COUNTS = ThreadLocal.withInitial(Counts::new);
+
+    private QueryCounter() {
+    }
+
+    public static Stats snapshot() {
+        Counts counts = COUNTS.get();
+        return new Stats(counts.selects, counts.inserts, counts.updates, counts.deletes, counts.others,
+                counts.rows, counts.roundTrips);
+    }
+
+    /** Runs {@code action} and returns the SQL it issued on this thread. */
+    public static Stats measure(Runnable action) {
+        Stats before = snapshot();
+        action.run();
+        return snapshot().minus(before);
+    }
+
+    public static <T> Stats measure(Supplier<T> action) {
+        return measure((Runnable) action::get);
+    }
+
+    static void recordStatements(String sql, int statements) {
+        Counts counts = COUNTS.get();
+        if (startsWith(sql, "select")) {
+            counts.selects += statements;
+        } else if (startsWith(sql, "insert")) {
+            counts.inserts += statements;
+        } else if (startsWith(sql, "update")) {
+            counts.updates += statements;
+        } else if (startsWith(sql, "delete")) {
+            counts.deletes += statements;
+        } else {
+            counts.others += statements;
+        }
+        counts.roundTrips++;
+    }
+
+    static void recordRows(long rows) {
+        if (rows > 0) {
+            COUNTS.get().rows += rows;
+        }
+    }
+
+    // Leading keyword only: a statement is filed under what it starts with (WITH ... counts as other)
+    private static boolean startsWith(String sql, String keyword) {
+        if (sql == null) {
+            return false;
+        }
+        int start = 0;
+        while (start < sql.length() && Character.isWhitespace(sql.charAt(start))) {
+            start++;
+        }
+        return sql.regionMatches(true, start, keyword, 0, keyword.length());
+    }
+
+    private static final class Counts {
+        long selects;
+        long inserts;
+        long updates;
+        long deletes;
+        long others;
+        long rows;
+        long roundTrips;
+    }
+
+    public record Stats(long selects, long inserts, long updates, long deletes, long others,
+                        long rows, long roundTrips) {
+
+        public long statements() {
+            return selects + inserts + updates + deletes + others;
+        }
+
+        public Stats minus(Stats earlier) {
+            return new Stats(selects - earlier.selects, inserts - earlier.inserts, updates - earlier.updates,
+                    deletes - earlier.deletes, others - earlier.others, rows - earlier.rows,
+                    roundTrips - earlier.roundTrips);
+        }
+
+        @Override
+        public String toString() {
+            return "select=" + selects + ";insert=" + inserts + ";update=" + updates + ";delete=" + deletes
+                    + ";other=" + others + ";rows=" + rows + ";roundTrips=" + roundTrips;
+        }
+    }
+}
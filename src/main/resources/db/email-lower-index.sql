@@ -0,0 +1,21 @@
+-- Case-insensitive email uniqueness and lookups for databases that predate it: init.sql only
+-- runs on a fresh volume, so existing ones never got idx_users_email_lower and every
+-- lower(email) lookup and uniqueness check fell back to a sequential scan. Idempotent and
+-- safe to re-run. The table is created here when missing so the index exists from the first
+-- start; Hibernate's ddl update then only adds what this leaves out.
+CREATE TABLE IF NOT EXISTS usersdata (
+    id BIGSERIAL PRIMARY KEY,
+    name VARCHAR(100) NOT NULL,
+    email VARCHAR(150) UNIQUE NOT NULL,
+    age INTEGER,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    version BIGINT NOT NULL DEFAULT 0
+);
+
+-- Emails are stored trimmed and lower-cased (org.example.util.Emails); bring older rows in line.
+-- Fails on addresses that differ only by case, which have to be merged by hand first.
+UPDATE usersdata SET email = lower(trim(email)) WHERE email <> lower(trim(email));
+
+-- Superseded by the UNIQUE constraint's index and idx_users_email_lower
+DROP INDEX IF EXISTS idx_users_email;
+CREATE UNIQUE INDEX IF NOT EXISTS idx_users_email_lower ON usersdata (lower(email)) INCLUDE (email);
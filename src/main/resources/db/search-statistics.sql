@@ -0,0 +1,5 @@
+-- created_at rises with id, so a search for recent rows that the planner prices at the default
+-- histogram's 1% floor walks the primary key from the oldest row and filters nearly the whole
+-- table. A finer histogram estimates such ranges closely enough to pick idx_users_created_at.
+-- Takes effect at the next ANALYZE; idempotent and safe to re-run.
+ALTER TABLE IF EXISTS usersdata ALTER COLUMN created_at SET STATISTICS 1000;
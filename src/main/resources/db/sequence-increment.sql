@@ -0,0 +1,5 @@
+-- Hibernate draws ids in pooled-lo blocks of 50 (User.id allocationSize) and refuses to start
+-- when the live sequence increments by anything else. Databases created from init.sql before
+-- that change, or by an older ddl update, still increment by 1. Idempotent and safe to re-run;
+-- a missing sequence is created by Hibernate with the right increment.
+ALTER SEQUENCE IF EXISTS usersdata_id_seq INCREMENT BY 50;
@@ -0,0 +1,107 @@
+import jakarta.persistence.EntityManagerFactory;
+import org.example.config.HibernateUtilBridge;
+import org.example.util.HibernateUtil;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class HibernateUtilTest {
+
+    // Nothing listens here, so a standalone build fails fast instead of reaching a real database
+    private static final String UNREACHABLE_URL = "jdbc:postgresql://localhost:1/none";
+
+    private SessionFactory sharedFactory;
+
+    @BeforeEach
+    void setUp() {
+        sharedFactory = mock(SessionFactory.class);
+        System.setProperty("hibernate.connection.url", UNREACHABLE_URL);
+        System.setProperty("hibernate.hikari.registerMbeans", "false");
+    }
+
+    @AfterEach
+    void tearDown() {
+        HibernateUtil.releaseSharedSessionFactory();
+        System.clearProperty("hibernate.connection.url");
+        System.clearProperty("hibernate.hikari.registerMbeans");
+    }
+
+    @Test
+    void getSessionFactory_ShouldReturnSharedFactory_ResolvedOnceOnFirstUse() {
+        // Arrange
+        AtomicInteger resolutions = new AtomicInteger();
+        HibernateUtil.useSharedSessionFactory(() -> {
+            resolutions.incrementAndGet();
+            return sharedFactory;
+        });
+
+        // Act & Assert
+        assertEquals(0, resolutions.get());
+        assertFalse(HibernateUtil.isInitialized());
+        assertSame(sharedFactory, HibernateUtil.getSessionFactory());
+        assertSame(sharedFactory, HibernateUtil.getSessionFactory());
+        assertEquals(1, resolutions.get());
+        assertNull(HibernateUtil.getPoolStats());
+    }
+
+    @Test
+    void getSessionFactory_ShouldBuildStandaloneFactory_OnlyWhenNothingIsShared() {
+        // Arrange
+        HibernateUtil.useSharedSessionFactory(() -> sharedFactory);
+        HibernateUtil.getSessionFactory();
+
+        // Act
+        HibernateUtil.releaseSharedSessionFactory();
+
+        // Assert: the build is attempted lazily and fails against the unreachable database
+        assertFalse(HibernateUtil.isInitialized());
+        assertThrows(ExceptionInInitializerError.class, HibernateUtil::getSessionFactory);
+        assertFalse(HibernateUtil.isInitialized());
+    }
+
+    @Test
+    void shutdown_ShouldNotCloseSharedFactory() {
+        // Arrange
+        HibernateUtil.useSharedSessionFactory(() -> sharedFactory);
+        HibernateUtil.getSessionFactory();
+
+        // Act
+        HibernateUtil.shutdown();
+
+        // Assert
+        verify(sharedFactory, never()).close();
+        assertFalse(HibernateUtil.isInitialized());
+        assertSame(sharedFactory, HibernateUtil.getSessionFactory());
+    }
+
+    @Test
+    void bridge_ShouldShareApplicationFactory_AndLeaveItOpenOnRelease() {
+        // Arrange
+        EntityManagerFactory entityManagerFactory = mock(EntityManagerFactory.class);
+        when(entityManagerFactory.unwrap(SessionFactory.class)).thenReturn(sharedFactory);
+        HibernateUtilBridge bridge = new HibernateUtilBridge(entityManagerFactory, mock(DataSource.class));
+
+        // Act
+        SessionFactory factory = HibernateUtil.getSessionFactory();
+        bridge.release();
+
+        // Assert
+        assertSame(sharedFactory, factory);
+        verify(sharedFactory, never()).close();
+        assertFalse(HibernateUtil.isInitialized());
+    }
+}
@@ -0,0 +1,52 @@
+import org.example.util.LongIntHashMap;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class LongIntHashMapTest {
+
+    @Test
+    void putGetRemove_ShouldBehaveLikeHashMap() {
+        // Arrange
+        LongIntHashMap map = new LongIntHashMap();
+        Map<Long, Integer> expected = new HashMap<>();
+        Random random = new Random(42);
+
+        // Act: small key range forces long probe runs, collisions and removals inside them
+        for (int i = 0; i < 200_000; i++) {
+            long key = random.nextInt(2_000) - 1_000L;
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.getOrDefault(key, -1), map.remove(key));
+                expected.remove(key);
+            } else {
+                assertEquals(expected.getOrDefault(key, -1), map.put(key, i));
+                expected.put(key, i);
+            }
+        }
+
+        // Assert
+        assertEquals(expected.size(), map.size());
+        for (long key = -1_000; key < 1_000; key++) {
+            assertEquals(expected.getOrDefault(key, -1), map.get(key));
+        }
+    }
+
+    @Test
+    void put_ShouldKeepZero_AndRejectNegativeValues() {
+        // Arrange
+        LongIntHashMap map = new LongIntHashMap(4);
+
+        // Act
+        map.put(7L, 0);
+
+        // Assert
+        assertEquals(0, map.get(7L));
+        assertEquals(-1, map.get(8L));
+        assertThrows(IllegalArgumentException.class, () -> map.put(8L, -1));
+    }
+}
@@ -0,0 +1,55 @@
+import org.example.util.LongObjectHashMap;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class LongObjectHashMapTest {
+
+    @Test
+    void putGetRemove_ShouldBehaveLikeHashMap() {
+        // Arrange
+        LongObjectHashMap<String> map = new LongObjectHashMap<>();
+        Map<Long, String> expected = new HashMap<>();
+        Random random = new Random(42);
+
+        // Act: small key range forces long probe runs, collisions and removals inside them
+        for (int i = 0; i < 200_000; i++) {
+            long key = random.nextInt(2_000) - 1_000L;
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), map.remove(key));
+            } else {
+                String value = "v" + i;
+                assertEquals(expected.put(key, value), map.put(key, value));
+            }
+        }
+
+        // Assert
+        assertEquals(expected.size(), map.size());
+        for (long key = -1_000; key < 1_000; key++) {
+            assertEquals(expected.get(key), map.get(key));
+        }
+    }
+
+    @Test
+    void forEachValue_ShouldVisitEveryEntryOnce() {
+        // Arrange
+        LongObjectHashMap<Long> map = new LongObjectHashMap<>(4);
+        for (long id = 1; id <= 10_000; id++) {
+            map.put(id * 50, id);
+        }
+        map.remove(50);
+
+        // Act
+        long[] sum = new long[1];
+        map.forEachValue(value -> sum[0] += value);
+
+        // Assert
+        assertEquals(10_000L * 10_001 / 2 - 1, sum[0]);
+        assertNull(map.get(50));
+    }
+}
@@ -0,0 +1,53 @@
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.dao.MeteredUserDao;
+import org.example.dao.UserDao;
+import org.example.dao.UserDaoInMemory;
+import org.example.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MeteredUserDaoTest {
+
+    private SimpleMeterRegistry registry;
+    private UserDao userDao;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        userDao = new MeteredUserDao(new UserDaoInMemory(), "memory", registry);
+    }
+
+    @Test
+    void calls_ShouldBeTimedPerMethodWithRowsReturned() {
+        // Arrange
+        User saved = userDao.save(new User("John Doe", "john@example.com", 30));
+        userDao.save(new User("Jane Doe", "jane@example.com", 25));
+
+        // Act
+        userDao.findById(saved.getId());
+        userDao.findById(-1L);
+        userDao.findAll();
+
+        // Assert
+        assertEquals(2, registry.get("user.dao").tags("engine", "memory", "method", "save", "exception", "none")
+                .timer().count());
+        assertEquals(2, registry.get("user.dao").tags("method", "findById", "exception", "none").timer().count());
+        assertEquals(1, registry.get("user.dao.rows").tags("method", "findById").summary().totalAmount());
+        assertEquals(2, registry.get("user.dao.rows").tags("method", "findAll").summary().totalAmount());
+    }
+
+    @Test
+    void failure_ShouldBeTimedByExceptionTypeAndRethrown() {
+        // Arrange
+        userDao.save(new User("John Doe", "john@example.com", 30));
+
+        // Act & Assert
+        assertThrows(RuntimeException.class, () -> userDao.save(new User("Other", "john@example.com", 40)));
+        assertEquals(1, registry.get("user.dao").tags("method", "save", "exception", "IllegalStateException")
+                .timer().count());
+        assertEquals(1, registry.get("user.dao").tags("method", "save", "exception", "none").timer().count());
+    }
+}
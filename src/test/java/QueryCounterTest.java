@@ -0,0 +1,120 @@
+import jakarta.servlet.http.HttpServletResponse;
+import org.example.config.QueryCountFilter;
+import org.example.util.CountingDataSource;
+import org.example.util.QueryCounter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class QueryCounterTest {
+
+    private DataSource target;
+    private ResultSet resultSet;
+    private DataSource dataSource;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        target = mock(DataSource.class);
+        Connection connection = mock(Connection.class);
+        PreparedStatement statement = mock(PreparedStatement.class);
+        resultSet = mock(ResultSet.class);
+        when(target.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+        when(statement.executeQuery()).thenReturn(resultSet);
+        when(statement.executeUpdate()).thenReturn(1);
+        when(statement.executeBatch()).thenReturn(new int[]{1, 1, 1});
+        when(resultSet.next()).thenReturn(true, true, false);
+        dataSource = new CountingDataSource(target, CountingDataSource.DEFAULT_SLOW_QUERY_THRESHOLD, true);
+    }
+
+    @Test
+    void measure_ShouldCountStatementsRowsAndRoundTrips() {
+        // Act
+        QueryCounter.Stats used = QueryCounter.measure(() -> {
+            try (Connection connection = dataSource.getConnection()) {
+                ResultSet rows = connection.prepareStatement("SELECT * FROM usersdata").executeQuery();
+                while (rows.next()) {
+                    // consume
+                }
+                connection.prepareStatement(" update usersdata SET age = 1 WHERE id = 1").executeUpdate();
+
+                PreparedStatement insert = connection.prepareStatement("INSERT INTO usersdata VALUES (?)");
+                for (int i = 0; i < 3; i++) {
+                    insert.addBatch();
+                }
+                insert.executeBatch();
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        // Assert
+        assertEquals(1, used.selects());
+        assertEquals(1, used.updates());
+        assertEquals(3, used.inserts());
+        assertEquals(5, used.statements());
+        assertEquals(3, used.roundTrips());
+        assertEquals(2 + 1 + 3, used.rows());
+    }
+
+    @Test
+    void measure_ShouldLeaveResultSetsUnwrapped_WhenReadRowsAreNotCounted() {
+        // Arrange
+        DataSource statementsOnly = new CountingDataSource(target, Duration.ofMillis(200), false);
+
+        // Act
+        QueryCounter.Stats used = QueryCounter.measure(() -> {
+            try (Connection connection = statementsOnly.getConnection()) {
+                ResultSet rows = connection.prepareStatement("SELECT * FROM usersdata").executeQuery();
+                assertSame(resultSet, rows);
+                while (rows.next()) {
+                    // consume
+                }
+                connection.prepareStatement("UPDATE usersdata SET age = 1 WHERE id = 1").executeUpdate();
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        // Assert
+        assertEquals(1, used.selects());
+        assertEquals(1, used.updates());
+        assertEquals(2, used.roundTrips());
+        assertEquals(1, used.rows());
+    }
+
+    @Test
+    void filter_ShouldReportRequestStatementsInHeaders() throws Exception {
+        // Arrange
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        new QueryCountFilter().doFilter(new MockHttpServletRequest("DELETE", "/api/users/1"), response,
+                (request, servletResponse) -> {
+                    try (Connection connection = dataSource.getConnection()) {
+                        connection.prepareStatement("DELETE FROM usersdata WHERE id = ?").executeUpdate();
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                    ((HttpServletResponse) servletResponse).setStatus(204);
+                });
+
+        // Assert
+        assertEquals("1", response.getHeader(QueryCountFilter.COUNT_HEADER));
+        assertEquals("select=0;insert=0;update=0;delete=1;other=0;rows=1;roundTrips=1",
+                response.getHeader(QueryCountFilter.STATS_HEADER));
+    }
+}
@@ -1,37 +1,64 @@
 
+import org.example.controller.SearchMatchConverter;
 import org.example.controller.UserController;
+import org.example.dto.BatchCreateResponse;
+import org.example.dto.BatchItemResult;
+import org.example.dto.BulkDeleteResponse;
 import org.example.dto.CreateUserRequest;
+import org.example.dto.ImportReport;
+import org.example.dto.PatchUserRequest;
 import org.example.dto.UpdateUserRequest;
 import org.example.dto.UserDto;
+import org.example.dto.UserField;
+import org.example.dto.UserLookupResponse;
+import org.example.dto.UserPage;
+import org.example.dto.UserSearchRequest;
+import org.example.dto.UserSuggestion;
 import org.example.service.UserService;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
+import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import java.time.LocalDateTime;
 import java.util.Arrays;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.function.Consumer;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.when;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.never;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 
 @WebMvcTest(UserController.class)
+@ContextConfiguration(classes = {UserController.class, SearchMatchConverter.class})
 class UserControllerTest {
 
     @Autowired
@@ -60,6 +87,51 @@ class UserControllerTest {
                 .andExpect(jsonPath("$.age").value(30));
     }
 
+    @Test
+    void createUsers_ShouldReturnPerItemResults() throws Exception {
+        List<CreateUserRequest> requests = List.of(
+                new CreateUserRequest("John Doe", "john@example.com", 30),
+                new CreateUserRequest("Jane Smith", "existing@example.com", 25));
+        BatchCreateResponse response = new BatchCreateResponse(1, 1, List.of(
+                BatchItemResult.created(0, new UserDto(1L, "John Doe", "john@example.com", 30, LocalDateTime.now())),
+                BatchItemResult.rejected(1, "User with email existing@example.com already exists")));
+
+        when(userService.createUsers(anyList())).thenReturn(response);
+
+        mockMvc.perform(post("/api/users/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requests)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(1))
+                .andExpect(jsonPath("$.rejected").value(1))
+                .andExpect(jsonPath("$.results[0].status").value("CREATED"))
+                .andExpect(jsonPath("$.results[0].user.id").value(1L))
+                .andExpect(jsonPath("$.results[1].status").value("REJECTED"))
+                .andExpect(jsonPath("$.results[1].error").value("User with email existing@example.com already exists"));
+    }
+
+    @Test
+    void createUsers_WithEmptyBatch_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(post("/api/users/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Batch must contain at least one user"));
+    }
+
+    @Test
+    void importUsers_ShouldReturnReport() throws Exception {
+        when(userService.importUsers(any())).thenReturn(new ImportReport(3, 2, 1, 10, 300));
+
+        mockMvc.perform(post("/api/users/import")
+                        .contentType("text/csv")
+                        .content("name,email,age\nA,a@example.com,1\nB,b@example.com,2\nC,bad,3\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rowsRead").value(3))
+                .andExpect(jsonPath("$.imported").value(2))
+                .andExpect(jsonPath("$.rejected").value(1));
+    }
+
     @Test
     void getUserById_ShouldReturnUser() throws Exception {
         UserDto userDto = new UserDto(1L, "John Doe", "john@example.com", 30, LocalDateTime.now());
@@ -74,19 +146,241 @@ class UserControllerTest {
     }
 
     @Test
-    void getAllUsers_ShouldReturnUserList() throws Exception {
+    void getUserByEmail_ShouldReturnUserWithETag() throws Exception {
+        UserDto userDto = new UserDto(1L, "John Doe", "john@example.com", 30, LocalDateTime.now(), 2L);
+
+        when(userService.getUserByEmail("John@Example.com")).thenReturn(userDto);
+
+        mockMvc.perform(get("/api/users/by-email").param("email", "John@Example.com"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"2\""))
+                .andExpect(jsonPath("$.email").value("john@example.com"));
+    }
+
+    @Test
+    void getUserByEmail_WhenMissing_ShouldReturnBadRequest() throws Exception {
+        when(userService.getUserByEmail("missing@example.com"))
+                .thenThrow(new IllegalArgumentException("User not found with email: missing@example.com"));
+
+        mockMvc.perform(get("/api/users/by-email").param("email", "missing@example.com"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("User not found with email: missing@example.com"));
+    }
+
+    @Test
+    void getUsersByIds_ShouldReturnUsersAndMissingIds() throws Exception {
+        UserDto userDto = new UserDto(2L, "Jane Doe", "jane@example.com", 25, LocalDateTime.now());
+
+        when(userService.getUsersByIds(List.of(2L, 9L)))
+                .thenReturn(new UserLookupResponse(List.of(userDto), List.of(9L)));
+
+        mockMvc.perform(get("/api/users").param("ids", "2,9"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.users[0].id").value(2))
+                .andExpect(jsonPath("$.missing[0]").value(9));
+    }
+
+    @Test
+    void lookupUsers_WithEmptyBody_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(post("/api/users/lookup")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getUsers_ShouldReturnUserPage() throws Exception {
         List<UserDto> users = Arrays.asList(
                 new UserDto(1L, "John Doe", "john@example.com", 30, LocalDateTime.now()),
                 new UserDto(2L, "Jane Smith", "jane@example.com", 25, LocalDateTime.now())
         );
 
-        when(userService.getAllUsers()).thenReturn(users);
+        when(userService.getUsers(null, 50)).thenReturn(new UserPage(users, "next-token"));
 
         mockMvc.perform(get("/api/users"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.length()").value(2))
-                .andExpect(jsonPath("$[0].name").value("John Doe"))
-                .andExpect(jsonPath("$[1].name").value("Jane Smith"));
+                .andExpect(jsonPath("$.items.length()").value(2))
+                .andExpect(jsonPath("$.items[0].name").value("John Doe"))
+                .andExpect(jsonPath("$.items[1].name").value("Jane Smith"))
+                .andExpect(jsonPath("$.nextCursor").value("next-token"));
+    }
+
+    @Test
+    void getUsers_ShouldCapPageSize() throws Exception {
+        when(userService.getUsers("abc", 500)).thenReturn(new UserPage(List.of(), null));
+
+        mockMvc.perform(get("/api/users").param("cursor", "abc").param("limit", "100000"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(0));
+
+        verify(userService).getUsers("abc", 500);
+    }
+
+    @Test
+    void getUserById_WithFields_ShouldReturnOnlyRequestedAttributes_AndFullETag() throws Exception {
+        UserDto userDto = new UserDto(1L, "John Doe", "john@example.com", 30, LocalDateTime.now(), 4L);
+
+        when(userService.getUserById(1L)).thenReturn(userDto);
+
+        mockMvc.perform(get("/api/users/1").param("fields", "email"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"4\""))
+                .andExpect(jsonPath("$.id").value(1L))
+                .andExpect(jsonPath("$.email").value("john@example.com"))
+                .andExpect(jsonPath("$.name").doesNotExist())
+                .andExpect(jsonPath("$.createdAt").doesNotExist())
+                .andExpect(jsonPath("$.version").doesNotExist());
+    }
+
+    @Test
+    void getUserById_WithFields_ShouldKeepSelectedNullAttributes() throws Exception {
+        UserDto userDto = new UserDto(1L, "John Doe", "john@example.com", null, LocalDateTime.now(), 0L);
+
+        when(userService.getUserById(1L)).thenReturn(userDto);
+
+        mockMvc.perform(get("/api/users/1").param("fields", "age"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(content().json("{\"id\":1,\"age\":null}", true));
+    }
+
+    @Test
+    void getUserById_WithoutFields_ShouldKeepNullAge() throws Exception {
+        UserDto userDto = new UserDto(1L, "John Doe", "john@example.com", null, LocalDateTime.now(), 0L);
+
+        when(userService.getUserById(1L)).thenReturn(userDto);
+
+        mockMvc.perform(get("/api/users/1"))
+                .andExpect(status().isOk())
+                .andExpect(content().json("{\"id\":1,\"age\":null}"));
+    }
+
+    @Test
+    void getUsers_WithFields_ShouldPassSelectionToService() throws Exception {
+        UserDto narrowed = new UserDto();
+        narrowed.setId(1L);
+        narrowed.setEmail("john@example.com");
+
+        when(userService.getUsers(null, 50, EnumSet.of(UserField.ID, UserField.EMAIL)))
+                .thenReturn(new UserPage(List.of(narrowed), null));
+
+        mockMvc.perform(get("/api/users").param("fields", "id, email"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].email").value("john@example.com"))
+                .andExpect(jsonPath("$.items[0].name").doesNotExist())
+                .andExpect(jsonPath("$.items[0].age").doesNotExist())
+                .andExpect(content().json("{\"nextCursor\":null}"));
+    }
+
+    @Test
+    void getUsers_WithUnknownField_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/api/users").param("fields", "id,password"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Unknown field: password"));
+    }
+
+    @Test
+    void suggestUsers_ShouldReturnRankedMatches_AndCapLimit() throws Exception {
+        when(userService.suggestUsers("jo", 50)).thenReturn(List.of(
+                new UserSuggestion(1L, "John Doe", "john@example.com", 0L)));
+
+        mockMvc.perform(get("/api/users/suggest").param("q", "jo").param("limit", "1000"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].name").value("John Doe"));
+
+        verify(userService).suggestUsers("jo", 50);
+    }
+
+    @Test
+    void searchUsers_ShouldBindFilters() throws Exception {
+        when(userService.searchUsers(any(UserSearchRequest.class), isNull(), eq(50)))
+                .thenReturn(new UserPage(List.of(
+                        new UserDto(1L, "John Doe", "john@example.com", 30, LocalDateTime.now())), null));
+
+        mockMvc.perform(get("/api/users/search")
+                        .param("name", "joh")
+                        .param("match", "prefix")
+                        .param("minAge", "18")
+                        .param("maxAge", "40")
+                        .param("createdFrom", "2024-01-01T00:00:00")
+                        .param("createdTo", "2024-02-01T00:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].name").value("John Doe"));
+
+        ArgumentCaptor<UserSearchRequest> criteria = ArgumentCaptor.forClass(UserSearchRequest.class);
+        verify(userService).searchUsers(criteria.capture(), isNull(), eq(50));
+        assertEquals("joh", criteria.getValue().getName());
+        assertEquals(UserSearchRequest.Match.PREFIX, criteria.getValue().getMatch());
+        assertEquals(18, criteria.getValue().getMinAge());
+        assertEquals(40, criteria.getValue().getMaxAge());
+        assertEquals(LocalDateTime.of(2024, 1, 1, 0, 0), criteria.getValue().getCreatedFrom());
+        assertEquals(LocalDateTime.of(2024, 2, 1, 0, 0), criteria.getValue().getCreatedTo());
+    }
+
+    @Test
+    void searchUsers_WithInvalidFilters_ShouldReturnBadRequest() throws Exception {
+        when(userService.searchUsers(any(UserSearchRequest.class), isNull(), eq(50)))
+                .thenThrow(new IllegalArgumentException("minAge must not exceed maxAge"));
+
+        mockMvc.perform(get("/api/users/search").param("minAge", "40").param("maxAge", "18"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("minAge must not exceed maxAge"));
+        mockMvc.perform(get("/api/users/search").param("minAge", "old"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/users/search").param("name", "joh").param("match", "fuzzy"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void exportUsers_ShouldStreamNdjson() throws Exception {
+        LocalDateTime createdAt = LocalDateTime.of(2024, 1, 1, 12, 0);
+        doAnswer(invocation -> {
+            Consumer<UserDto> sink = invocation.getArgument(0);
+            sink.accept(new UserDto(1L, "John Doe", "john@example.com", 30, createdAt));
+            sink.accept(new UserDto(2L, "Jane Smith", "jane@example.com", 25, createdAt));
+            return null;
+        }).when(userService).exportUsers(any());
+
+        MvcResult result = mockMvc.perform(get("/api/users/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertEquals(2, lines.length);
+        assertEquals("John Doe", objectMapper.readTree(lines[0]).get("name").asText());
+        assertEquals(2L, objectMapper.readTree(lines[1]).get("id").asLong());
+    }
+
+    @Test
+    void exportUsers_ShouldStreamCsvWithQuotedFields() throws Exception {
+        LocalDateTime createdAt = LocalDateTime.of(2024, 1, 1, 12, 0);
+        doAnswer(invocation -> {
+            Consumer<UserDto> sink = invocation.getArgument(0);
+            sink.accept(new UserDto(1L, "Doe, John", "john@example.com", 30, createdAt));
+            return null;
+        }).when(userService).exportUsers(any());
+
+        MvcResult result = mockMvc.perform(get("/api/users/export").param("format", "csv"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().string("id,name,email,age,created_at\n"
+                        + "1,\"Doe, John\",john@example.com,30,2024-01-01T12:00\n"));
+    }
+
+    @Test
+    void exportUsers_WithUnknownFormat_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/api/users/export").param("format", "xml"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Unsupported export format: xml"));
     }
 
     @Test
@@ -94,7 +388,7 @@ class UserControllerTest {
         UpdateUserRequest request = new UpdateUserRequest("John Updated", "john.updated@example.com", 31);
         UserDto response = new UserDto(1L, "John Updated", "john.updated@example.com", 31, LocalDateTime.now());
 
-        when(userService.updateUser(eq(1L), any(UpdateUserRequest.class))).thenReturn(response);
+        when(userService.updateUser(eq(1L), any(UpdateUserRequest.class), isNull())).thenReturn(response);
 
         mockMvc.perform(put("/api/users/1")
                         .contentType(MediaType.APPLICATION_JSON)
@@ -105,6 +399,106 @@ class UserControllerTest {
                 .andExpect(jsonPath("$.age").value(31));
     }
 
+    @Test
+    void getUserById_ShouldReturnETagFromVersion() throws Exception {
+        UserDto userDto = new UserDto(1L, "John Doe", "john@example.com", 30, LocalDateTime.now(), 4L);
+
+        when(userService.getUserById(1L)).thenReturn(userDto);
+
+        mockMvc.perform(get("/api/users/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"4\""));
+    }
+
+    @Test
+    void updateUser_WithIfMatch_ShouldPassExpectedVersion() throws Exception {
+        UpdateUserRequest request = new UpdateUserRequest("John Updated", "john@example.com", 31);
+        UserDto response = new UserDto(1L, "John Updated", "john@example.com", 31, LocalDateTime.now(), 5L);
+
+        when(userService.updateUser(eq(1L), any(UpdateUserRequest.class), eq(4L))).thenReturn(response);
+
+        mockMvc.perform(put("/api/users/1")
+                        .header("If-Match", "\"4\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"5\""));
+    }
+
+    @Test
+    void updateUser_WithStaleIfMatch_ShouldReturnPreconditionFailed() throws Exception {
+        UpdateUserRequest request = new UpdateUserRequest("John Updated", "john@example.com", 31);
+
+        when(userService.updateUser(eq(1L), any(UpdateUserRequest.class), eq(3L)))
+                .thenThrow(new OptimisticLockingFailureException("User 1 was modified concurrently; expected version 3"));
+
+        mockMvc.perform(put("/api/users/1")
+                        .header("If-Match", "W/\"3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(content().string("User 1 was modified concurrently; expected version 3"));
+    }
+
+    @Test
+    void updateUser_WithMalformedIfMatch_ShouldReturnBadRequest() throws Exception {
+        UpdateUserRequest request = new UpdateUserRequest("John Updated", "john@example.com", 31);
+
+        mockMvc.perform(put("/api/users/1")
+                        .header("If-Match", "\"abc\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Invalid If-Match header: \"abc\""));
+    }
+
+    @Test
+    void patchUser_ShouldAcceptSparseMergePatch() throws Exception {
+        UserDto response = new UserDto(1L, "John Doe", "john@example.com", 31, LocalDateTime.now(), 2L);
+
+        when(userService.patchUser(eq(1L), any(PatchUserRequest.class), eq(1L))).thenReturn(response);
+
+        mockMvc.perform(patch("/api/users/1")
+                        .header("If-Match", "\"1\"")
+                        .contentType("application/merge-patch+json")
+                        .content("{\"age\":31}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.age").value(31))
+                .andExpect(header().string("ETag", "\"2\""));
+    }
+
+    @Test
+    void patchUser_WithExplicitNullInMergePatch_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(patch("/api/users/1")
+                        .contentType("application/merge-patch+json")
+                        .content("{\"age\":31,\"email\":null}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Merge patch cannot remove mandatory field: email"));
+
+        verify(userService, never()).patchUser(any(), any(), any());
+    }
+
+    @Test
+    void patchUser_WithNullInPlainJson_ShouldLeaveFieldUnchanged() throws Exception {
+        UserDto response = new UserDto(1L, "John Doe", "john@example.com", 31, LocalDateTime.now(), 2L);
+
+        when(userService.patchUser(eq(1L), any(PatchUserRequest.class), isNull())).thenReturn(response);
+
+        mockMvc.perform(patch("/api/users/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"age\":31,\"email\":null}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.email").value("john@example.com"));
+    }
+
+    @Test
+    void patchUser_WithBlankName_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(patch("/api/users/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"  \"}"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void deleteUser_ShouldReturnNoContent() throws Exception {
         doNothing().when(userService).deleteUser(1L);
@@ -115,6 +509,17 @@ class UserControllerTest {
         verify(userService, times(1)).deleteUser(1L);
     }
 
+    @Test
+    void deleteUsers_ShouldReturnDeletedAndMissingIds() throws Exception {
+        when(userService.deleteUsers(List.of(1L, 2L)))
+                .thenReturn(new BulkDeleteResponse(List.of(1L), List.of(2L)));
+
+        mockMvc.perform(delete("/api/users").param("ids", "1,2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.deleted[0]").value(1))
+                .andExpect(jsonPath("$.missing[0]").value(2));
+    }
+
     @Test
     void createUser_WithInvalidData_ShouldReturnBadRequest() throws Exception {
         CreateUserRequest invalidRequest = new CreateUserRequest("", "invalid-email", -5);
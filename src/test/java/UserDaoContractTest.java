@@ -0,0 +1,201 @@
+import org.example.dao.UserDao;
+import org.example.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Behaviour every {@link UserDao} engine must share; subclasses supply the engine
+ * and a way to empty its storage before each test.
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+abstract class UserDaoContractTest {
+    protected UserDao userDao;
+
+    protected abstract UserDao createUserDao();
+
+    protected abstract void deleteAllUsers() throws Exception;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        deleteAllUsers();
+        userDao = createUserDao();
+    }
+
+    @Test
+    @Order(1)
+    void save_ShouldSaveUser_WhenValidUser() {
+        // Arrange
+        User user = new User("John Doe", "john@example.com", 30);
+
+        // Act
+        User savedUser = userDao.save(user);
+
+        // Assert
+        assertNotNull(savedUser);
+        assertNotNull(savedUser.getId());
+        assertEquals("John Doe", savedUser.getName());
+        assertEquals("john@example.com", savedUser.getEmail());
+        assertEquals(30, savedUser.getAge());
+    }
+
+    @Test
+    @Order(2)
+    void findById_ShouldReturnUser_WhenUserExists() {
+        // Arrange
+        User user = new User("Jane Doe", "jane@example.com", 25);
+        User savedUser = userDao.save(user);
+
+        // Act
+        Optional<User> foundUser = userDao.findById(savedUser.getId());
+
+        // Assert
+        assertTrue(foundUser.isPresent());
+        assertEquals(savedUser.getId(), foundUser.get().getId());
+        assertEquals("Jane Doe", foundUser.get().getName());
+    }
+
+    @Test
+    @Order(3)
+    void findById_ShouldReturnEmpty_WhenUserNotExists() {
+        // Act
+        Optional<User> foundUser = userDao.findById(999L);
+
+        // Assert
+        assertTrue(foundUser.isEmpty());
+    }
+
+    @Test
+    @Order(4)
+    void findAll_ShouldReturnAllUsers() {
+        // Arrange
+        userDao.save(new User("User1", "user1@example.com", 20));
+        userDao.save(new User("User2", "user2@example.com", 25));
+
+        // Act
+        List<User> users = userDao.findAll();
+
+        // Assert
+        assertEquals(2, users.size());
+    }
+
+    @Test
+    @Order(5)
+    void update_ShouldUpdateUser_WhenValidUser() {
+        // Arrange
+        User user = new User("Old Name", "old@example.com", 30);
+        User savedUser = userDao.save(user);
+
+        savedUser.setName("New Name");
+        savedUser.setEmail("new@example.com");
+        savedUser.setAge(35);
+
+        // Act
+        User updatedUser = userDao.update(savedUser);
+
+        // Assert
+        assertEquals("New Name", updatedUser.getName());
+        assertEquals("new@example.com", updatedUser.getEmail());
+        assertEquals(35, updatedUser.getAge());
+    }
+
+    @Test
+    @Order(6)
+    void delete_ShouldDeleteUser_WhenUserExists() {
+        // Arrange
+        User user = new User("To Delete", "delete@example.com", 40);
+        User savedUser = userDao.save(user);
+
+        // Act & Assert
+        assertDoesNotThrow(() -> userDao.delete(savedUser.getId()));
+
+        Optional<User> deletedUser = userDao.findById(savedUser.getId());
+        assertTrue(deletedUser.isEmpty());
+    }
+
+    @Test
+    @Order(7)
+    void findByEmail_ShouldReturnUser_WhenEmailExists() {
+        // Arrange
+        String email = "find@example.com";
+        userDao.save(new User("Find User", email, 28));
+
+        // Act
+        Optional<User> foundUser = userDao.findByEmail(email);
+
+        // Assert
+        assertTrue(foundUser.isPresent());
+        assertEquals(email, foundUser.get().getEmail());
+    }
+
+    @Test
+    @Order(8)
+    void findByEmail_ShouldReturnEmpty_WhenEmailNotExists() {
+        // Act
+        Optional<User> foundUser = userDao.findByEmail("nonexistent@example.com");
+
+        // Assert
+        assertTrue(foundUser.isEmpty());
+    }
+
+    @Test
+    @Order(9)
+    void save_ShouldThrowException_WhenDatabaseError() {
+        // Arrange
+        User user = new User(null, "invalid@example.com", 30);
+
+        // Act & Assert
+        assertThrows(RuntimeException.class, () -> userDao.save(user));
+    }
+
+    @Test
+    @Order(10)
+    void update_ShouldRejectStaleVersion() {
+        // Arrange
+        User savedUser = userDao.save(new User("Versioned", "versioned@example.com", 30));
+        savedUser.setName("First");
+        userDao.update(savedUser);
+
+        // Act & Assert
+        savedUser.setName("Second");
+        assertThrows(RuntimeException.class, () -> userDao.update(savedUser));
+        assertEquals("First", userDao.findById(savedUser.getId()).orElseThrow().getName());
+    }
+
+    @Test
+    @Order(11)
+    void save_ShouldThrowException_WhenEmailAlreadyExists() {
+        // Arrange
+        userDao.save(new User("First", "taken@example.com", 30));
+
+        // Act & Assert
+        assertThrows(RuntimeException.class, () -> userDao.save(new User("Second", "taken@example.com", 31)));
+        assertEquals("First", userDao.findByEmail("taken@example.com").orElseThrow().getName());
+    }
+
+    @Test
+    @Order(12)
+    void save_ShouldGenerateDistinctIds_AndKeepCreatedAt() {
+        // Act
+        User first = userDao.save(new User("First", "first@example.com", 30));
+        User second = userDao.save(new User("Second", "second@example.com", 31));
+
+        // Assert
+        assertNotEquals(first.getId(), second.getId());
+        User found = userDao.findById(first.getId()).orElseThrow();
+        assertNotNull(found.getCreatedAt());
+        assertEquals(0L, found.getVersion());
+    }
+}
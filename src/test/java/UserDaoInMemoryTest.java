@@ -0,0 +1,77 @@
+import org.example.dao.UserDao;
+import org.example.dao.UserDaoInMemory;
+import org.example.model.User;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+
+class UserDaoInMemoryTest extends UserDaoContractTest {
+
+    @Override
+    protected UserDao createUserDao() {
+        return new UserDaoInMemory();
+    }
+
+    @Override
+    protected void deleteAllUsers() {
+        // Every test gets a fresh, empty store from createUserDao()
+    }
+
+    @Test
+    @Order(20)
+    void findById_ShouldReturnCopy_NotStoredInstance() {
+        // Arrange
+        User savedUser = userDao.save(new User("Original", "copy@example.com", 30));
+
+        // Act
+        User found = userDao.findById(savedUser.getId()).orElseThrow();
+        found.setName("Changed");
+
+        // Assert
+        assertNotSame(savedUser, found);
+        assertEquals("Original", userDao.findById(savedUser.getId()).orElseThrow().getName());
+    }
+
+    @Test
+    @Order(21)
+    void concurrentSaves_ShouldKeepEmailUnique() throws Exception {
+        // Arrange
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Callable<Boolean>> attempts = new ArrayList<>();
+        for (int i = 0; i < 64; i++) {
+            String email = "user" + (i % 8) + "@example.com";
+            attempts.add(() -> {
+                try {
+                    userDao.save(new User("Racer", email, 30));
+                    return true;
+                } catch (RuntimeException e) {
+                    return false;
+                }
+            });
+        }
+
+        try {
+            // Act
+            int saved = 0;
+            for (Future<Boolean> attempt : pool.invokeAll(attempts, 10, TimeUnit.SECONDS)) {
+                saved += attempt.get() ? 1 : 0;
+            }
+
+            // Assert
+            assertEquals(8, saved);
+            assertEquals(8, userDao.findAll().size());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,95 @@
+import org.example.dao.UserDao;
+import org.example.dao.UserDaoFactory;
+import org.example.dao.UserDaoJdbc;
+import org.example.model.User;
+import org.example.util.JdbcUtil;
+import org.example.util.QueryCounter;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Order;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@Testcontainers
+class UserDaoJdbcIntegrationTest extends UserDaoContractTest {
+    @Container
+    private static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine")
+            .withDatabaseName("testdb")
+            .withUsername("test")
+            .withPassword("test");
+
+    @BeforeAll
+    static void beforeAll() throws Exception {
+        System.setProperty("hibernate.connection.url", postgres.getJdbcUrl());
+        System.setProperty("hibernate.connection.username", postgres.getUsername());
+        System.setProperty("hibernate.connection.password", postgres.getPassword());
+
+        JdbcUtil.shutdown();
+
+        // Plain JDBC does not create the schema; apply the same script as production
+        try (Connection connection = JdbcUtil.getDataSource().getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute(Files.readString(Path.of("init.sql")));
+        }
+    }
+
+    @AfterAll
+    static void afterAll() {
+        JdbcUtil.shutdown();
+    }
+
+    @Override
+    protected UserDao createUserDao() {
+        return UserDaoFactory.create("jdbc");
+    }
+
+    @Override
+    protected void deleteAllUsers() throws Exception {
+        try (Connection connection = JdbcUtil.getDataSource().getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.executeUpdate("DELETE FROM usersdata");
+        }
+    }
+
+    @Test
+    @Order(20)
+    void factory_ShouldSelectEngineByName() {
+        assertTrue(UserDaoFactory.create("JDBC") instanceof UserDaoJdbc);
+        assertThrows(IllegalArgumentException.class, () -> UserDaoFactory.create("mongo"));
+    }
+
+    @Test
+    @Order(21)
+    void queryBudget_ShouldIssueOneRoundTripPerCall() {
+        // Arrange
+        User user = new User("Budget User", "budget@example.com", 41);
+        User next = new User("Next User", "next@example.com", 42);
+
+        // Act
+        QueryCounter.Stats save = QueryCounter.measure(() -> userDao.save(user));
+        QueryCounter.Stats saveNext = QueryCounter.measure(() -> userDao.save(next));
+        QueryCounter.Stats update = QueryCounter.measure(() -> userDao.update(user));
+        QueryCounter.Stats findAll = QueryCounter.measure(() -> userDao.findAll());
+
+        // Assert: the id block comes from nextval() inside the first INSERT, not a separate query
+        assertEquals(1, save.inserts());
+        assertEquals(1, save.roundTrips());
+        assertEquals(1, saveNext.roundTrips());
+        assertEquals(user.getId() + 1, next.getId());
+        assertEquals(1, update.updates());
+        assertEquals(1, update.roundTrips());
+        assertEquals(1, findAll.selects());
+        assertEquals(2, findAll.rows());
+    }
+}
@@ -1,54 +1,60 @@
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.example.dao.UserDao;
 import org.example.dao.UserDaoPostgreSQL;
 import org.example.model.User;
 import org.example.util.HibernateUtil;
+import org.example.util.QueryCounter;
 import org.junit.jupiter.api.BeforeAll;
-import org.junit.jupiter.api.TestMethodOrder;
-import org.junit.jupiter.api.MethodOrderer;
 import org.junit.jupiter.api.AfterAll;
-import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.Order;
 import org.testcontainers.containers.PostgreSQLContainer;
 import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
-import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
-import static org.junit.jupiter.api.Assertions.assertThrows;
 
 @Testcontainers
-@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
-class UserDaoPostgreSQLIntegrationTest {
+class UserDaoPostgreSQLIntegrationTest extends UserDaoContractTest {
     @Container
     private static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine")
             .withDatabaseName("testdb")
             .withUsername("test")
             .withPassword("test");
-    private static UserDaoPostgreSQL userDao;
 
     @BeforeAll
     static void beforeAll() {
         System.setProperty("hibernate.connection.url", postgres.getJdbcUrl());
         System.setProperty("hibernate.connection.username", postgres.getUsername());
         System.setProperty("hibernate.connection.password", postgres.getPassword());
+        System.setProperty("hibernate.hikari.maximumPoolSize", "4");
 
         HibernateUtil.shutdown();
-
-        userDao = new UserDaoPostgreSQL();
     }
 
     @AfterAll
     static void afterAll() {
         HibernateUtil.shutdown();
+        System.clearProperty("hibernate.hikari.maximumPoolSize");
+    }
+
+    @Override
+    protected UserDao createUserDao() {
+        return new UserDaoPostgreSQL();
     }
 
-    @BeforeEach
-    void setUp() {
+    @Override
+    protected void deleteAllUsers() {
         try (var session = HibernateUtil.getSessionFactory().openSession()) {
             var transaction = session.beginTransaction();
             session.createMutationQuery("DELETE FROM User").executeUpdate();
@@ -57,128 +63,47 @@ class UserDaoPostgreSQLIntegrationTest {
     }
 
     @Test
-    @Order(1)
-    void save_ShouldSaveUser_WhenValidUser() {
-        // Arrange
-        User user = new User("John Doe", "john@example.com", 30);
-
-        // Act
-        User savedUser = userDao.save(user);
-
-        // Assert
-        assertNotNull(savedUser);
-        assertNotNull(savedUser.getId());
-        assertEquals("John Doe", savedUser.getName());
-        assertEquals("john@example.com", savedUser.getEmail());
-        assertEquals(30, savedUser.getAge());
-    }
-
-    @Test
-    @Order(2)
-    void findById_ShouldReturnUser_WhenUserExists() {
-        // Arrange
-        User user = new User("Jane Doe", "jane@example.com", 25);
-        User savedUser = userDao.save(user);
-
-        // Act
-        Optional<User> foundUser = userDao.findById(savedUser.getId());
-
-        // Assert
-        assertTrue(foundUser.isPresent());
-        assertEquals(savedUser.getId(), foundUser.get().getId());
-        assertEquals("Jane Doe", foundUser.get().getName());
-    }
-
-    @Test
-    @Order(3)
-    void findById_ShouldReturnEmpty_WhenUserNotExists() {
-        // Act
-        Optional<User> foundUser = userDao.findById(999L);
-
-        // Assert
-        assertTrue(foundUser.isEmpty());
-    }
-
-    @Test
-    @Order(4)
-    void findAll_ShouldReturnAllUsers() {
-        // Arrange
-        userDao.save(new User("User1", "user1@example.com", 20));
-        userDao.save(new User("User2", "user2@example.com", 25));
-
-        // Act
-        List<User> users = userDao.findAll();
-
-        // Assert
-        assertEquals(2, users.size());
-    }
-
-    @Test
-    @Order(5)
-    void update_ShouldUpdateUser_WhenValidUser() {
-        // Arrange
-        User user = new User("Old Name", "old@example.com", 30);
-        User savedUser = userDao.save(user);
-
-        savedUser.setName("New Name");
-        savedUser.setEmail("new@example.com");
-        savedUser.setAge(35);
-
-        // Act
-        User updatedUser = userDao.update(savedUser);
-
-        // Assert
-        assertEquals("New Name", updatedUser.getName());
-        assertEquals("new@example.com", updatedUser.getEmail());
-        assertEquals(35, updatedUser.getAge());
-    }
-
-    @Test
-    @Order(6)
-    void delete_ShouldDeleteUser_WhenUserExists() {
+    @Order(20)
+    void concurrentCalls_ShouldShareBoundedPool() throws Exception {
         // Arrange
-        User user = new User("To Delete", "delete@example.com", 40);
-        User savedUser = userDao.save(user);
-
-        // Act & Assert
-        assertDoesNotThrow(() -> userDao.delete(savedUser.getId()));
-
-        Optional<User> deletedUser = userDao.findById(savedUser.getId());
-        assertTrue(deletedUser.isEmpty());
+        User savedUser = userDao.save(new User("Pooled User", "pooled@example.com", 33));
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+
+        try {
+            // Act
+            List<Future<Optional<User>>> results = new ArrayList<>();
+            for (int i = 0; i < 64; i++) {
+                results.add(pool.submit(() -> userDao.findById(savedUser.getId())));
+            }
+
+            // Assert
+            for (Future<Optional<User>> result : results) {
+                assertTrue(result.get(10, TimeUnit.SECONDS).isPresent());
+            }
+            HikariPoolMXBean stats = HibernateUtil.getPoolStats();
+            assertNotNull(stats);
+            assertTrue(stats.getTotalConnections() <= 4);
+            assertEquals(0, stats.getActiveConnections());
+        } finally {
+            pool.shutdownNow();
+        }
     }
 
     @Test
-    @Order(7)
-    void findByEmail_ShouldReturnUser_WhenEmailExists() {
+    @Order(21)
+    void queryBudget_ShouldIssueOneStatementPerCall() {
         // Arrange
-        String email = "find@example.com";
-        userDao.save(new User("Find User", email, 28));
-
-        // Act
-        Optional<User> foundUser = userDao.findByEmail(email);
-
-        // Assert
-        assertTrue(foundUser.isPresent());
-        assertEquals(email, foundUser.get().getEmail());
-    }
+        User savedUser = userDao.save(new User("Budget User", "budget@example.com", 41));
 
-    @Test
-    @Order(8)
-    void findByEmail_ShouldReturnEmpty_WhenEmailNotExists() {
         // Act
-        Optional<User> foundUser = userDao.findByEmail("nonexistent@example.com");
+        QueryCounter.Stats findById = QueryCounter.measure(() -> userDao.findById(savedUser.getId()));
+        QueryCounter.Stats delete = QueryCounter.measure(() -> userDao.delete(savedUser.getId()));
 
         // Assert
-        assertTrue(foundUser.isEmpty());
-    }
-
-    @Test
-    @Order(9)
-    void save_ShouldThrowException_WhenDatabaseError() {
-        // Arrange
-        User user = new User(null, "invalid@example.com", 30);
-
-        // Act & Assert
-        assertThrows(RuntimeException.class, () -> userDao.save(user));
+        assertEquals(1, findById.selects());
+        assertEquals(1, findById.statements());
+        assertEquals(1, findById.rows());
+        assertEquals(1, delete.deletes());
+        assertEquals(1, delete.statements());
     }
 }
@@ -0,0 +1,134 @@
+import org.example.UserManagementApplication;
+import org.example.dto.UserDto;
+import org.example.model.User;
+import org.example.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.jdbc.Sql;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ContextConfiguration(classes = UserManagementApplication.class)
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers
+@Sql("file:init.sql")
+class UserEmailIndexTest {
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15")
+            .withDatabaseName("testdb")
+            .withUsername("test")
+            .withPassword("test");
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void insertIfEmailAbsent_ShouldRejectEmailDifferingOnlyByCase() {
+        // Given
+        userRepository.insertIfEmailAbsent(new User("John Doe", "john@example.com", 30)).orElseThrow();
+
+        // When / Then: the lower(email) index reports the conflict, not the plain UNIQUE constraint
+        assertTrue(userRepository.insertIfEmailAbsent(new User("Other John", "John@Example.com", 31)).isEmpty());
+    }
+
+    @Test
+    void emailLookups_ShouldMatchRowsStoredBeforeNormalization() {
+        // Given
+        jdbcTemplate.update("INSERT INTO usersdata (id, name, email, age, created_at, version) "
+                + "VALUES (nextval('usersdata_id_seq'), 'Legacy', 'Legacy@Example.com', 40, LOCALTIMESTAMP, 0)");
+
+        // When
+        UserDto found = userRepository.findDtoByEmail("legacy@example.com").orElseThrow();
+        Set<String> existing = userRepository.findExistingEmails(List.of("legacy@example.com", "new@example.com"));
+
+        // Then
+        assertEquals("Legacy", found.getName());
+        assertEquals(Set.of("legacy@example.com"), existing);
+        assertEquals("Legacy", userRepository.findByEmail("legacy@example.com").orElseThrow().getName());
+        assertTrue(userRepository.existsByEmail("legacy@example.com"));
+        assertFalse(userRepository.existsByEmail("new@example.com"));
+    }
+
+    @Test
+    void emailQueries_ShouldUseTheLowerEmailIndex() {
+        // Given: enough rows that a sequential scan would be the cheaper plan if no index applied
+        jdbcTemplate.update("""
+                INSERT INTO usersdata (id, name, email, age, created_at, version)
+                SELECT nextval('usersdata_id_seq'), 'Person ' || g, 'person' || g || '@example.com', 30,
+                       LOCALTIMESTAMP, 0
+                FROM generate_series(1, 20000) AS g
+                """);
+        jdbcTemplate.execute("ANALYZE usersdata");
+
+        // When
+        String lookup = explain("SELECT id, name, email, age, created_at, version FROM usersdata "
+                + "WHERE lower(email) = 'person7@example.com'");
+        String uniqueness = explain("SELECT lower(email) FROM usersdata "
+                + "WHERE lower(email) = ANY('{person7@example.com,person8@example.com}'::varchar[])");
+
+        // Then
+        assertTrue(lookup.contains("idx_users_email_lower"), lookup);
+        assertTrue(uniqueness.contains("Index Only Scan using idx_users_email_lower"), uniqueness);
+        assertFalse(jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM pg_indexes WHERE indexname = 'idx_users_email')", Boolean.class));
+    }
+
+    @Test
+    void emailMigration_ShouldNormalizeAndIndexAnExistingDatabase_AndBeRerunnable() {
+        // Given: the schema as it was before idx_users_email_lower, with a mixed-case row
+        jdbcTemplate.execute("DROP INDEX idx_users_email_lower");
+        jdbcTemplate.execute("CREATE INDEX idx_users_email ON usersdata(email)");
+        jdbcTemplate.update("INSERT INTO usersdata (id, name, email, age, created_at, version) "
+                + "VALUES (nextval('usersdata_id_seq'), 'Legacy', ' Legacy@Example.com', 40, LOCALTIMESTAMP, 0)");
+
+        // When: run the way spring.sql.init runs it, twice
+        ResourceDatabasePopulator migration = new ResourceDatabasePopulator(
+                new ClassPathResource("db/email-lower-index.sql"));
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            migration.populate(connection);
+            migration.populate(connection);
+            return null;
+        });
+
+        // Then
+        assertEquals("legacy@example.com", jdbcTemplate.queryForObject(
+                "SELECT email FROM usersdata WHERE name = 'Legacy'", String.class));
+        assertEquals(List.of("idx_users_email_lower"), jdbcTemplate.queryForList(
+                "SELECT indexname FROM pg_indexes WHERE indexname IN ('idx_users_email', 'idx_users_email_lower')",
+                String.class));
+        assertTrue(userRepository.insertIfEmailAbsent(new User("Other", "LEGACY@example.com", 31)).isEmpty());
+    }
+
+    private String explain(String sql) {
+        return String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + sql, String.class));
+    }
+}
@@ -0,0 +1,39 @@
+import org.example.dto.UserDto;
+import org.example.dto.UserField;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.EnumSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class UserFieldTest {
+
+    @Test
+    void values_ShouldCoverEveryUserDtoProperty() {
+        // Act
+        var dtoProperties = Arrays.stream(UserDto.class.getDeclaredFields())
+                .filter(field -> !Modifier.isStatic(field.getModifiers()))
+                .map(Field::getName)
+                .toList();
+
+        // Assert: adding a DTO attribute without a selectable field (or vice versa) fails here
+        assertEquals(dtoProperties, Arrays.stream(UserField.values()).map(UserField::getProperty).toList());
+    }
+
+    @Test
+    void parse_ShouldAlwaysIncludeId_AndRejectUnknownOrBlankNames() {
+        // Act & Assert
+        assertEquals(EnumSet.of(UserField.ID, UserField.EMAIL, UserField.CREATED_AT),
+                UserField.parse("createdAt, email"));
+        assertEquals("Unknown field: created_at",
+                assertThrows(IllegalArgumentException.class, () -> UserField.parse("created_at")).getMessage());
+        assertEquals("Unknown field: ",
+                assertThrows(IllegalArgumentException.class, () -> UserField.parse("id,,email")).getMessage());
+        assertEquals("Fields must not be blank",
+                assertThrows(IllegalArgumentException.class, () -> UserField.parse(" ")).getMessage());
+    }
+}
@@ -1,7 +1,13 @@
+import jakarta.persistence.EntityManager;
+import org.example.dto.UserDto;
+import org.example.dto.UserField;
 import org.example.model.User;
+import org.example.repository.ImportedRows;
 import org.example.repository.UserRepository;
+import org.hibernate.Session;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.test.context.DynamicPropertyRegistry;
@@ -10,10 +16,15 @@ import org.testcontainers.containers.PostgreSQLContainer;
 import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
 
+import java.io.StringReader;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 
@@ -38,6 +49,9 @@ class UserRepositoryTest {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private EntityManager entityManager;
+
     @Test
     void findByEmail_ShouldReturnUser() {
         // Given
@@ -89,4 +103,209 @@ class UserRepositoryTest {
         assertEquals(25, saved.getAge());
         assertNotNull(saved.getCreatedAt());
     }
+
+    @Test
+    void findDtosAfterId_ShouldReturnKeysetPageInIdOrder() {
+        // Given
+        User first = userRepository.save(new User("First", "first@example.com", 20));
+        User second = userRepository.save(new User("Second", "second@example.com", 21));
+        User third = userRepository.save(new User("Third", "third@example.com", 22));
+
+        // When
+        List<UserDto> page = userRepository.findDtosAfterId(first.getId(), Limit.of(2));
+
+        // Then
+        assertEquals(2, page.size());
+        assertEquals(second.getId(), page.get(0).getId());
+        assertEquals(third.getId(), page.get(1).getId());
+    }
+
+    @Test
+    void findFieldsAfterId_ShouldReadOnlySelectedColumns() {
+        // Given
+        User first = userRepository.save(new User("First", "first@example.com", 20));
+        User second = userRepository.saveAndFlush(new User("Second", "second@example.com", 21));
+
+        // When
+        List<UserDto> page = userRepository.findFieldsAfterId(UserField.parse("email"), first.getId() - 1, 10);
+
+        // Then
+        assertEquals(List.of(first.getId(), second.getId()), page.stream().map(UserDto::getId).toList());
+        assertEquals("first@example.com", page.get(0).getEmail());
+        assertNull(page.get(0).getName());
+        assertNull(page.get(0).getAge());
+        assertNull(page.get(0).getCreatedAt());
+        assertNull(page.get(0).getVersion());
+    }
+
+    @Test
+    void insertAllIfEmailAbsent_ShouldAssignIds_AndSkipExistingEmails() {
+        // Given
+        userRepository.insertIfEmailAbsent(new User("Existing", "existing@example.com", 40)).orElseThrow();
+        List<User> users = List.of(
+                new User("Batch One", "batch1@example.com", 20),
+                new User("Taken", "EXISTING@example.com", 21),
+                new User("Batch Two", "batch2@example.com", null));
+
+        // When
+        List<User> inserted = userRepository.insertAllIfEmailAbsent(users);
+        Set<String> existing = userRepository.findExistingEmails(
+                List.of("batch1@example.com", "batch2@example.com", "missing@example.com"));
+
+        // Then
+        assertEquals(List.of(users.get(0), users.get(2)), inserted);
+        assertNotNull(users.get(1).getId());
+        assertEquals(Set.of("batch1@example.com", "batch2@example.com"), existing);
+        assertNull(userRepository.findDtoById(users.get(2).getId()).orElseThrow().getAge());
+        assertEquals("Existing", userRepository.findByEmail("existing@example.com").orElseThrow().getName());
+    }
+
+    @Test
+    void copyImport_ShouldInsertValidRows_AndSkipInvalidOrExisting() {
+        // Given
+        userRepository.saveAndFlush(new User("Existing", "existing@example.com", 50));
+        String csv = "name,email,age\n"
+                + "Imported One,one@example.com,20\n"
+                + "\"Two, Imported\",two@example.com,21\n"
+                + ",blank-name@example.com,22\n"
+                + "Bad Email,not-an-email,23\n"
+                + "Bad Age,age@example.com,old\n"
+                + "Existing Again,existing@example.com,24\n";
+
+        // When
+        long rowsRead = userRepository.copyIntoImportStaging(new StringReader(csv));
+        ImportedRows imported = userRepository.mergeImportStaging();
+
+        // Then
+        assertEquals(6, rowsRead);
+        assertEquals(2, imported.count());
+        long twoId = userRepository.findByEmail("two@example.com").orElseThrow().getId();
+        assertTrue(imported.firstId() <= twoId && twoId <= imported.lastId());
+        assertEquals("Two, Imported", userRepository.findByEmail("two@example.com").orElseThrow().getName());
+        assertEquals("Existing", userRepository.findByEmail("existing@example.com").orElseThrow().getName());
+    }
+
+    @Test
+    void insertIfEmailAbsent_ShouldInsertOnce_AndReportConflict() {
+        // When
+        Optional<User> inserted = userRepository.insertIfEmailAbsent(new User("John Doe", "john@example.com", 30));
+        Optional<User> conflict = userRepository.insertIfEmailAbsent(new User("John Again", "john@example.com", 31));
+
+        // Then
+        assertTrue(inserted.isPresent());
+        assertNotNull(inserted.get().getId());
+        assertNotNull(inserted.get().getCreatedAt());
+        assertEquals("John Doe", inserted.get().getName());
+        assertTrue(conflict.isEmpty());
+        assertEquals("John Doe", userRepository.findByEmail("john@example.com").orElseThrow().getName());
+    }
+
+    @Test
+    void updateReturning_ShouldBumpVersion_AndRejectStaleVersion() {
+        // Given
+        User user = userRepository.insertIfEmailAbsent(new User("John Doe", "john@example.com", 30)).orElseThrow();
+
+        // When
+        Optional<User> updated = userRepository.updateReturning(user.getId(), "John Updated", "john@example.com", 31, 0L);
+        Optional<User> stale = userRepository.updateReturning(user.getId(), "John Stale", "john@example.com", 32, 0L);
+
+        // Then
+        assertTrue(updated.isPresent());
+        assertEquals(1L, updated.get().getVersion());
+        assertEquals("John Updated", updated.get().getName());
+        assertTrue(stale.isEmpty());
+    }
+
+    @Test
+    void updateReturning_ShouldAllowSameEmail_WhenUpdatingSameUser() {
+        // Given: another user's email is taken, so the unique index is in play
+        userRepository.insertIfEmailAbsent(new User("Jane Doe", "jane@example.com", 25)).orElseThrow();
+        User user = userRepository.insertIfEmailAbsent(new User("Old Name", "same@example.com", 30)).orElseThrow();
+
+        // When
+        Optional<User> updated = userRepository.updateReturning(user.getId(), "New Name", "same@example.com", 35, null);
+
+        // Then
+        assertTrue(updated.isPresent());
+        assertEquals("New Name", updated.get().getName());
+        assertEquals("same@example.com", updated.get().getEmail());
+        assertEquals(35, updated.get().getAge());
+        assertEquals(1L, updated.get().getVersion());
+    }
+
+    @Test
+    void patchReturning_ShouldTouchOnlySuppliedColumns() {
+        // Given
+        User user = userRepository.insertIfEmailAbsent(new User("John Doe", "john@example.com", 30)).orElseThrow();
+
+        // When
+        Optional<User> patched = userRepository.patchReturning(user.getId(), null, null, 31, null);
+
+        // Then
+        assertTrue(patched.isPresent());
+        assertEquals("John Doe", patched.get().getName());
+        assertEquals("john@example.com", patched.get().getEmail());
+        assertEquals(31, patched.get().getAge());
+        assertEquals(1L, patched.get().getVersion());
+    }
+
+    @Test
+    void findAllByIdAny_ShouldLoadOnlyExistingIds() {
+        // Given
+        User first = userRepository.insertIfEmailAbsent(new User("John Doe", "john@example.com", 30)).orElseThrow();
+        User second = userRepository.insertIfEmailAbsent(new User("Jane Doe", "jane@example.com", 25)).orElseThrow();
+
+        // When
+        List<UserDto> found = userRepository.findAllByIdAny(List.of(second.getId(), -1L, first.getId()));
+
+        // Then
+        assertEquals(Set.of(first.getId(), second.getId()),
+                Set.copyOf(found.stream().map(UserDto::getId).toList()));
+    }
+
+    @Test
+    void findDtoByIdAndEmail_ShouldProjectRow_WithoutManagingEntities() {
+        // Given
+        User saved = userRepository.saveAndFlush(new User("John Doe", "john@example.com", 30));
+        entityManager.clear();
+
+        // When
+        Optional<UserDto> byId = userRepository.findDtoById(saved.getId());
+        Optional<UserDto> byEmail = userRepository.findDtoByEmail("john@example.com");
+
+        // Then
+        assertEquals("John Doe", byId.orElseThrow().getName());
+        assertNotNull(byId.orElseThrow().getCreatedAt());
+        assertEquals(0L, byId.orElseThrow().getVersion());
+        assertEquals(saved.getId(), byEmail.orElseThrow().getId());
+        assertTrue(userRepository.findDtoById(-1L).isEmpty());
+        assertEquals(0, entityManager.unwrap(Session.class).getStatistics().getEntityCount());
+    }
+
+    @Test
+    void deleteAllByIdReturning_ShouldReturnOnlyDeletedIds_WithTheirVersions() {
+        // Given
+        User first = userRepository.insertIfEmailAbsent(new User("John Doe", "john@example.com", 30)).orElseThrow();
+        User second = userRepository.insertIfEmailAbsent(new User("Jane Doe", "jane@example.com", 25)).orElseThrow();
+        userRepository.updateReturning(second.getId(), "Jane Smith", "jane@example.com", 25, null);
+
+        // When
+        Map<Long, Long> deleted = userRepository.deleteAllByIdReturning(List.of(first.getId(), second.getId(), -1L));
+
+        // Then
+        assertEquals(Map.of(first.getId(), 0L, second.getId(), 1L), deleted);
+        assertTrue(userRepository.deleteReturningVersion(first.getId()).isEmpty());
+        assertTrue(userRepository.findById(second.getId()).isEmpty());
+    }
+
+    @Test
+    void deleteReturningVersion_ShouldReturnTheDeletedRowsVersion() {
+        // Given
+        User user = userRepository.insertIfEmailAbsent(new User("John Doe", "john@example.com", 30)).orElseThrow();
+        userRepository.updateReturning(user.getId(), "John Smith", "john@example.com", 30, null);
+
+        // When / Then
+        assertEquals(Optional.of(1L), userRepository.deleteReturningVersion(user.getId()));
+        assertTrue(userRepository.deleteReturningVersion(user.getId()).isEmpty());
+    }
 }
@@ -0,0 +1,228 @@
+import org.example.UserManagementApplication;
+import org.example.dto.UserDto;
+import org.example.dto.UserSearchRequest;
+import org.example.model.User;
+import org.example.repository.UserRepository;
+import org.example.repository.UserSearchQuery;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.jdbc.Sql;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ContextConfiguration(classes = UserManagementApplication.class)
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers
+@Sql("file:init.sql")
+class UserSearchTest {
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15")
+            .withDatabaseName("testdb")
+            .withUsername("test")
+            .withPassword("test");
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2020, 1, 1, 0, 0);
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void search_ShouldMatchNameSubstringCaseInsensitively() {
+        // Given
+        userRepository.saveAllAndFlush(List.of(
+                new User("Alice Cooper", "alice@example.com", 30),
+                new User("Malice Ward", "malice@example.com", 40),
+                new User("Bob Alison", "bob@example.com", 50)));
+
+        // When
+        List<UserDto> found = userRepository.search(criteria("ALIC", UserSearchRequest.Match.CONTAINS), 0L, 10);
+
+        // Then
+        assertEquals(List.of("Alice Cooper", "Malice Ward"), found.stream().map(UserDto::getName).toList());
+    }
+
+    @Test
+    void search_ShouldMatchNamePrefix() {
+        // Given
+        userRepository.saveAllAndFlush(List.of(
+                new User("Alice Cooper", "alice@example.com", 30),
+                new User("Malice Ward", "malice@example.com", 40)));
+
+        // When
+        List<UserDto> found = userRepository.search(criteria("al", UserSearchRequest.Match.PREFIX), 0L, 10);
+
+        // Then
+        assertEquals(List.of("Alice Cooper"), found.stream().map(UserDto::getName).toList());
+    }
+
+    @Test
+    void search_ShouldTreatLikeWildcardsLiterally() {
+        // Given
+        userRepository.saveAllAndFlush(List.of(
+                new User("100% Real", "real@example.com", 30),
+                new User("1000 Fake", "fake@example.com", 40),
+                new User("snake_case", "snake@example.com", 50),
+                new User("snakeXcase", "camel@example.com", 60)));
+
+        // When / Then
+        assertEquals(List.of("100% Real"), userRepository.search(
+                criteria("0% ", UserSearchRequest.Match.CONTAINS), 0L, 10).stream().map(UserDto::getName).toList());
+        assertEquals(List.of("snake_case"), userRepository.search(
+                criteria("e_c", UserSearchRequest.Match.CONTAINS), 0L, 10).stream().map(UserDto::getName).toList());
+    }
+
+    @Test
+    void search_ShouldFilterByAgeAndCreatedAtRanges() {
+        // Given
+        insertUsers(100);
+        UserSearchRequest criteria = new UserSearchRequest();
+        criteria.setMinAge(20);
+        criteria.setMaxAge(21);
+        criteria.setCreatedFrom(BASE.plusHours(10));
+        criteria.setCreatedTo(BASE.plusHours(90));
+
+        // When
+        List<UserDto> found = userRepository.search(criteria, 0L, 100);
+
+        // Then: ages cycle 18..77 by hour, so hours 62/63 are the only ones left in range
+        assertEquals(2, found.size());
+        assertTrue(found.stream().allMatch(user -> user.getAge() >= 20 && user.getAge() <= 21));
+        assertTrue(found.stream().allMatch(user -> !user.getCreatedAt().isBefore(BASE.plusHours(10))
+                && user.getCreatedAt().isBefore(BASE.plusHours(90))));
+    }
+
+    @Test
+    void search_ShouldPageByIdKeyset() {
+        // Given
+        insertUsers(25);
+        UserSearchRequest criteria = new UserSearchRequest();
+        criteria.setCreatedFrom(BASE);
+        criteria.setCreatedTo(BASE.plusYears(1));
+
+        // When: walk the pages the way the service does, carrying the last id forward
+        List<Long> ids = new ArrayList<>();
+        long afterId = 0L;
+        List<UserDto> page;
+        do {
+            page = userRepository.search(criteria, afterId, 10);
+            page.forEach(user -> ids.add(user.getId()));
+            if (!page.isEmpty()) {
+                afterId = page.get(page.size() - 1).getId();
+            }
+        } while (page.size() == 10);
+
+        // Then
+        assertEquals(25, ids.size());
+        assertEquals(ids.stream().sorted().toList(), ids);
+        assertEquals(25, ids.stream().distinct().count());
+    }
+
+    @Test
+    void search_ShouldUseAnIndexForEveryFilterCombination() {
+        // Given: enough rows that a sequential scan would be the cheaper plan if no index applied,
+        // and a few outliers so that each age bound alone matches 20 rows
+        insertUsers(20_000);
+        jdbcTemplate.update("UPDATE usersdata SET age = CASE WHEN id % 1000 = 0 THEN 90 ELSE 12 END"
+                + " WHERE id % 1000 IN (0, 500)");
+        jdbcTemplate.execute("ANALYZE usersdata");
+        String md5 = jdbcTemplate.queryForObject("SELECT md5('7777')", String.class);
+
+        // When / Then: every subset of the filters. Each bound alone keeps a few rows (the age
+        // outliers, the last or the first 20 hours); together they keep none, which the planner
+        // still has to find out from an index. Filtering a primary key walk for so few rows
+        // reads most of the table
+        for (int mask = 0; mask < 48; mask++) {
+            UserSearchRequest criteria = new UserSearchRequest();
+            switch (mask % 3) {
+                case 1 -> criteria.setName(md5.substring(4, 10));
+                case 2 -> {
+                    criteria.setName("person " + md5.substring(0, 5));
+                    criteria.setMatch(UserSearchRequest.Match.PREFIX);
+                }
+                default -> {
+                }
+            }
+            int filters = mask / 3;
+            if ((filters & 1) != 0) {
+                criteria.setMinAge(90);
+            }
+            if ((filters & 2) != 0) {
+                criteria.setMaxAge(12);
+            }
+            if ((filters & 4) != 0) {
+                criteria.setCreatedFrom(BASE.plusHours(19_980));
+            }
+            if ((filters & 8) != 0) {
+                criteria.setCreatedTo(BASE.plusHours(21));
+            }
+
+            String plan = explain(criteria);
+            assertFalse(plan.contains("Seq Scan"), "Sequential scan for filter set " + mask + ":\n" + plan);
+            if (criteria.getName() != null || filters != 0) {
+                assertFalse(plan.contains("usersdata_pkey") && plan.contains("Filter:"),
+                        "Primary key scan with a filter for filter set " + mask + ":\n" + plan);
+            }
+            // With several filters the planner may pick any of their indexes; alone, each must use its own
+            String expected = null;
+            if (criteria.getName() != null && filters == 0) {
+                expected = "idx_users_name_trgm";
+            } else if (criteria.getName() == null && (filters == 1 || filters == 2 || filters == 3)) {
+                expected = "idx_users_age";
+            } else if (criteria.getName() == null && (filters == 4 || filters == 8 || filters == 12)) {
+                expected = "idx_users_created_at";
+            }
+            if (expected != null) {
+                assertTrue(plan.contains(expected), expected + " unused for filter set " + mask + ":\n" + plan);
+            }
+        }
+    }
+
+    private String explain(UserSearchRequest criteria) {
+        UserSearchQuery query = UserSearchQuery.of(criteria, 0L, 51);
+        return String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + query.sql(), String.class, query.args()));
+    }
+
+    // Names carry an md5 so trigrams are as varied as real names; ages cycle 18..77, one row per hour
+    private void insertUsers(int count) {
+        jdbcTemplate.update("""
+                INSERT INTO usersdata (id, name, email, age, created_at, version)
+                SELECT nextval('usersdata_id_seq'), 'Person ' || md5(g::text), 'person' || g || '@example.com',
+                       18 + g % 60, ?::timestamp + g * interval '1 hour', 0
+                FROM generate_series(1, ?) AS g
+                """, BASE, count);
+    }
+
+    private static UserSearchRequest criteria(String name, UserSearchRequest.Match match) {
+        UserSearchRequest criteria = new UserSearchRequest();
+        criteria.setName(name);
+        criteria.setMatch(match);
+        return criteria;
+    }
+}
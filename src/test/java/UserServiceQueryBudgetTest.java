@@ -0,0 +1,126 @@
+import org.example.UserManagementApplication;
+import org.example.cache.UserCache;
+import org.example.config.QueryCountConfig;
+import org.example.dto.CreateUserRequest;
+import org.example.dto.UpdateUserRequest;
+import org.example.dto.UserDto;
+import org.example.search.UserSuggestIndex;
+import org.example.service.UserService;
+import org.example.util.QueryCounter;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * SQL budgets for {@link UserService}: how many statements each operation may issue
+ * against a real database. A failure here means an operation grew extra round-trips.
+ */
+@ContextConfiguration(classes = UserManagementApplication.class)
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({UserService.class, UserCache.class, UserSuggestIndex.class, QueryCountConfig.class,
+        LocalValidatorFactoryBean.class})
+@Testcontainers
+class UserServiceQueryBudgetTest {
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15")
+            .withDatabaseName("testdb")
+            .withUsername("test")
+            .withPassword("test");
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    @Autowired
+    private UserService userService;
+
+    @Test
+    void getUserById_ShouldIssueExactlyOneSelect_ThenHitTheCache() {
+        // Given
+        UserDto user = userService.createUser(new CreateUserRequest("John Doe", "john@example.com", 30));
+
+        // When
+        QueryCounter.Stats first = QueryCounter.measure(() -> userService.getUserById(user.getId()));
+        QueryCounter.Stats second = QueryCounter.measure(() -> userService.getUserById(user.getId()));
+
+        // Then
+        assertEquals(1, first.selects());
+        assertEquals(1, first.statements());
+        assertEquals(0, second.statements());
+    }
+
+    @Test
+    void createUser_ShouldIssueOneInsert_OnceTheIdBlockIsAllocated() {
+        // Given: the first insert may draw a new block of ids from the sequence
+        userService.createUser(new CreateUserRequest("John Doe", "john@example.com", 30));
+
+        // When
+        QueryCounter.Stats create = QueryCounter.measure(
+                () -> userService.createUser(new CreateUserRequest("Jane Doe", "jane@example.com", 25)));
+
+        // Then
+        assertEquals(1, create.inserts());
+        assertEquals(1, create.statements());
+    }
+
+    @Test
+    void updateAndDelete_ShouldIssueOneStatementEach() {
+        // Given
+        UserDto user = userService.createUser(new CreateUserRequest("John Doe", "john@example.com", 30));
+
+        // When
+        QueryCounter.Stats update = QueryCounter.measure(() -> userService.updateUser(user.getId(),
+                new UpdateUserRequest("John Updated", "john@example.com", 31)));
+        QueryCounter.Stats delete = QueryCounter.measure(() -> userService.deleteUser(user.getId()));
+
+        // Then
+        assertEquals(1, update.updates());
+        assertEquals(1, update.statements());
+        assertEquals(1, delete.deletes());
+        assertEquals(1, delete.statements());
+    }
+
+    @Test
+    void getUsers_ShouldIssueOneSelectPerPage() {
+        // Given
+        for (int i = 0; i < 5; i++) {
+            userService.createUser(new CreateUserRequest("User " + i, "user" + i + "@example.com", 20 + i));
+        }
+
+        // When
+        QueryCounter.Stats page = QueryCounter.measure(() -> userService.getUsers(null, 3));
+
+        // Then: limit + 1 rows tell whether there is a next page
+        assertEquals(1, page.selects());
+        assertEquals(1, page.statements());
+        assertEquals(4, page.rows());
+    }
+
+    @Test
+    void suggestUsers_ShouldIssueNoStatements() {
+        // Given
+        userService.createUser(new CreateUserRequest("John Doe", "john@example.com", 30));
+
+        // When
+        QueryCounter.Stats suggest = QueryCounter.measure(() -> userService.suggestUsers("john", 10));
+
+        // Then: typeahead is served from the in-memory index
+        assertEquals(0, suggest.statements());
+    }
+}
@@ -1,31 +1,71 @@
-
+import jakarta.validation.Validation;
+import org.example.cache.UserCache;
+import org.example.dto.BatchCreateResponse;
+import org.example.dto.BatchItemResult;
+import org.example.dto.BulkDeleteResponse;
 import org.example.dto.CreateUserRequest;
+import org.example.dto.ImportReport;
+import org.example.dto.PatchUserRequest;
 import org.example.dto.UpdateUserRequest;
 import org.example.dto.UserDto;
+import org.example.dto.UserField;
+import org.example.dto.UserLookupResponse;
+import org.example.dto.UserPage;
+import org.example.dto.UserSearchRequest;
+import org.example.dto.UserSuggestion;
+import org.example.mappers.UserMapper;
 import org.example.model.User;
+import org.example.repository.ImportedRows;
 import org.example.repository.UserRepository;
+import org.example.search.UserSuggestIndex;
 import org.example.service.UserService;
+import org.example.service.UsersImportedEvent;
+import org.example.util.CursorCodec;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
+
+import java.io.Reader;
+import java.io.StringReader;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.when;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
 
 @ExtendWith(MockitoExtension.class)
 class UserServiceTest {
@@ -35,9 +75,19 @@ class UserServiceTest {
 
     private UserService userService;
 
+    @Mock
+    private ApplicationEventPublisher events;
+
+    private UserCache userCache;
+
+    private UserSuggestIndex suggestIndex;
+
     @BeforeEach
     void setUp() {
-        userService = new UserService(userRepository);
+        userCache = new UserCache(100, Duration.ofMinutes(5));
+        suggestIndex = new UserSuggestIndex(10_000);
+        userService = new UserService(userRepository, Validation.buildDefaultValidatorFactory().getValidator(),
+                userCache, suggestIndex, events);
     }
 
     @Test
@@ -48,8 +98,7 @@ class UserServiceTest {
         savedUser.setId(1L);
         savedUser.setCreatedAt(LocalDateTime.now());
 
-        when(userRepository.existsByEmail("john@example.com")).thenReturn(false);
-        when(userRepository.save(any(User.class))).thenReturn(savedUser);
+        when(userRepository.insertIfEmailAbsent(any(User.class))).thenReturn(Optional.of(savedUser));
 
         // Act
         UserDto result = userService.createUser(request);
@@ -61,8 +110,26 @@ class UserServiceTest {
         assertEquals("john@example.com", result.getEmail());
         assertEquals(30, result.getAge());
 
-        verify(userRepository).existsByEmail("john@example.com");
-        verify(userRepository).save(any(User.class));
+        verify(userRepository).insertIfEmailAbsent(any(User.class));
+        verify(userRepository, never()).existsByEmail(anyString());
+        verify(userRepository, never()).save(any(User.class));
+    }
+
+    @Test
+    void createUser_ShouldStoreNormalizedEmail() {
+        // Arrange
+        CreateUserRequest request = new CreateUserRequest("John Doe", " John.Doe@Example.COM ", 30);
+        when(userRepository.insertIfEmailAbsent(any(User.class))).thenAnswer(invocation -> {
+            User user = invocation.getArgument(0);
+            user.setId(1L);
+            return Optional.of(user);
+        });
+
+        // Act
+        UserDto result = userService.createUser(request);
+
+        // Assert
+        assertEquals("john.doe@example.com", result.getEmail());
     }
 
     @Test
@@ -70,7 +137,7 @@ class UserServiceTest {
         // Arrange
         CreateUserRequest request = new CreateUserRequest("John Doe", "existing@example.com", 30);
 
-        when(userRepository.existsByEmail("existing@example.com")).thenReturn(true);
+        when(userRepository.insertIfEmailAbsent(any(User.class))).thenReturn(Optional.empty());
 
         // Act & Assert
         IllegalArgumentException exception = assertThrows(
@@ -79,19 +146,128 @@ class UserServiceTest {
         );
 
         assertEquals("User with email existing@example.com already exists", exception.getMessage());
-        verify(userRepository).existsByEmail("existing@example.com");
-        verify(userRepository, never()).save(any(User.class));
+        verify(userRepository).insertIfEmailAbsent(any(User.class));
+        verify(userRepository, never()).existsByEmail(anyString());
+    }
+
+    @Test
+    void createUsers_ShouldInsertValidItems_AndRejectTheRest() {
+        // Arrange
+        List<CreateUserRequest> requests = Arrays.asList(
+                new CreateUserRequest("New User", "new@example.com", 30),
+                new CreateUserRequest("", "invalid-email", 20),
+                new CreateUserRequest("Existing", "existing@example.com", 40),
+                new CreateUserRequest("Twin", "new@example.com", 31)
+        );
+
+        // existing@example.com is skipped by the insert, as it would be if committed concurrently
+        when(userRepository.insertAllIfEmailAbsent(anyList())).thenAnswer(invocation -> {
+            List<User> users = invocation.getArgument(0);
+            users.get(0).setId(100L);
+            users.get(1).setId(101L);
+            return List.of(users.get(0));
+        });
+
+        // Act
+        BatchCreateResponse response = userService.createUsers(requests);
+
+        // Assert
+        assertEquals(1, response.getCreated());
+        assertEquals(3, response.getRejected());
+        List<BatchItemResult> results = response.getResults();
+        assertEquals(BatchItemResult.Status.CREATED, results.get(0).getStatus());
+        assertEquals(100L, results.get(0).getUser().getId());
+        assertEquals(BatchItemResult.Status.REJECTED, results.get(1).getStatus());
+        assertEquals("Email should be valid; Name is mandatory", results.get(1).getError());
+        assertEquals("User with email existing@example.com already exists", results.get(2).getError());
+        assertEquals("Duplicate email new@example.com in batch", results.get(3).getError());
+        verify(userRepository, never()).existsByEmail(anyString());
+        verify(userRepository, never()).findExistingEmails(any());
+    }
+
+    @Test
+    void createUsers_ShouldTreatEmailsDifferingOnlyByCaseAsDuplicates() {
+        // Arrange
+        List<CreateUserRequest> requests = List.of(
+                new CreateUserRequest("First", "Same@Example.com", 30),
+                new CreateUserRequest("Second", "same@example.COM", 31));
+
+        when(userRepository.insertAllIfEmailAbsent(anyList())).thenAnswer(invocation -> {
+            List<User> users = invocation.getArgument(0);
+            users.get(0).setId(100L);
+            return users;
+        });
+
+        // Act
+        BatchCreateResponse response = userService.createUsers(requests);
+
+        // Assert
+        assertEquals(1, response.getCreated());
+        assertEquals("same@example.com", response.getResults().get(0).getUser().getEmail());
+        assertEquals("Duplicate email same@example.com in batch", response.getResults().get(1).getError());
+    }
+
+    @Test
+    void importUsers_ShouldReportImportedAndRejectedRows() {
+        // Arrange
+        Reader csv = new StringReader("name,email,age\nA,a@example.com,1\nB,bad,2\n");
+        when(userRepository.copyIntoImportStaging(csv)).thenReturn(2L);
+        when(userRepository.mergeImportStaging()).thenReturn(new ImportedRows(1, 100L, 100L));
+
+        // Act
+        ImportReport report = userService.importUsers(csv);
+
+        // Assert
+        assertEquals(2, report.getRowsRead());
+        assertEquals(1, report.getImported());
+        assertEquals(1, report.getRejected());
+        verify(userRepository).copyIntoImportStaging(csv);
+        verify(userRepository).mergeImportStaging();
+        verify(events).publishEvent(new UsersImportedEvent(100L, 100L));
+    }
+
+    @Test
+    void suggestUsers_ShouldServeWritesFromTheIndex_WithoutQueries() {
+        // Arrange
+        User alice = new User("Alice Cooper", "alice@example.com", 30);
+        alice.setId(1L);
+        alice.setVersion(0L);
+        User renamed = new User("Carol Cooper", "alice@example.com", 30);
+        renamed.setId(1L);
+        renamed.setVersion(1L);
+        when(userRepository.insertIfEmailAbsent(any(User.class))).thenReturn(Optional.of(alice));
+        when(userRepository.updateReturning(1L, "Carol Cooper", "alice@example.com", 30, null))
+                .thenReturn(Optional.of(renamed));
+        when(userRepository.deleteReturningVersion(1L)).thenReturn(Optional.of(1L));
+
+        // Act & Assert
+        userService.createUser(new CreateUserRequest("Alice Cooper", "alice@example.com", 30));
+        assertEquals(List.of(1L), userService.suggestUsers("ali", 10).stream().map(UserSuggestion::getId).toList());
+
+        userService.updateUser(1L, new UpdateUserRequest("Carol Cooper", "alice@example.com", 30));
+        assertEquals(List.of(1L), userService.suggestUsers("car", 10).stream().map(UserSuggestion::getId).toList());
+        assertEquals(1L, userService.suggestUsers("alice", 10).size());
+
+        userService.deleteUser(1L);
+        assertEquals(0, userService.suggestUsers("coop", 10).size());
+    }
+
+    @Test
+    void suggestUsers_ShouldRejectBlankQueryAndNonPositiveLimit() {
+        // Act & Assert
+        assertEquals("Query must not be blank", assertThrows(IllegalArgumentException.class,
+                () -> userService.suggestUsers(" ", 10)).getMessage());
+        assertEquals("Limit must be positive", assertThrows(IllegalArgumentException.class,
+                () -> userService.suggestUsers("john", 0)).getMessage());
     }
 
     @Test
     void getUserById_ShouldReturnUser_WhenUserExists() {
         // Arrange
         Long userId = 1L;
-        User user = new User("John Doe", "john@example.com", 30);
-        user.setId(userId);
-        user.setCreatedAt(LocalDateTime.now());
+        UserDto user = new UserDto(userId, "John Doe", "john@example.com", 30, LocalDateTime.now(), 0L);
 
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(userRepository.findDtoById(userId)).thenReturn(Optional.of(user));
 
         // Act
         UserDto result = userService.getUserById(userId);
@@ -100,14 +276,59 @@ class UserServiceTest {
         assertNotNull(result);
         assertEquals(userId, result.getId());
         assertEquals("John Doe", result.getName());
-        verify(userRepository).findById(userId);
+        verify(userRepository).findDtoById(userId);
+        verify(userRepository, never()).findById(any());
+    }
+
+    @Test
+    void getUserById_ShouldServeRepeatedLookupsFromCache() {
+        // Arrange
+        Long userId = 1L;
+        UserDto user = new UserDto(userId, "John Doe", "john@example.com", 30, LocalDateTime.now(), 0L);
+
+        when(userRepository.findDtoById(userId)).thenReturn(Optional.of(user));
+
+        // Act
+        userService.getUserById(userId);
+        UserDto result = userService.getUserById(userId);
+
+        // Assert
+        assertEquals("John Doe", result.getName());
+        verify(userRepository, times(1)).findDtoById(userId);
+        assertEquals(1, userCache.stats().hitCount());
+        assertEquals(1, userCache.stats().missCount());
+    }
+
+    @Test
+    void getUserById_ShouldReload_AfterUpdateEvictsEntry() {
+        // Arrange
+        Long userId = 1L;
+        UserDto user = new UserDto(userId, "Old Name", "same@example.com", 30, LocalDateTime.now(), 0L);
+
+        User updated = new User("New Name", "same@example.com", 31);
+        updated.setId(userId);
+
+        when(userRepository.findDtoById(userId))
+                .thenReturn(Optional.of(user))
+                .thenReturn(Optional.of(UserMapper.toDto(updated)));
+        when(userRepository.updateReturning(userId, "New Name", "same@example.com", 31, null))
+                .thenReturn(Optional.of(updated));
+
+        // Act
+        userService.getUserById(userId);
+        userService.updateUser(userId, new UpdateUserRequest("New Name", "same@example.com", 31));
+        UserDto result = userService.getUserById(userId);
+
+        // Assert
+        assertEquals("New Name", result.getName());
+        verify(userRepository, times(2)).findDtoById(userId);
     }
 
     @Test
     void getUserById_ShouldThrowException_WhenUserNotExists() {
         // Arrange
         Long userId = 999L;
-        when(userRepository.findById(userId)).thenReturn(Optional.empty());
+        when(userRepository.findDtoById(userId)).thenReturn(Optional.empty());
 
         // Act & Assert
         IllegalArgumentException exception = assertThrows(
@@ -116,28 +337,243 @@ class UserServiceTest {
         );
 
         assertEquals("User not found with id: " + userId, exception.getMessage());
-        verify(userRepository).findById(userId);
+        verify(userRepository).findDtoById(userId);
+    }
+
+    @Test
+    void getUserByEmail_ShouldShareOneFetch_BetweenConcurrentCallers() throws Exception {
+        // Arrange
+        UserDto user = new UserDto(1L, "John Doe", "john@example.com", 30, LocalDateTime.now(), 0L);
+        CountDownLatch release = new CountDownLatch(1);
+        when(userRepository.findDtoByEmail("john@example.com")).thenAnswer(invocation -> {
+            release.await();
+            return Optional.of(user);
+        });
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+
+        try {
+            // Act
+            Future<UserDto> leader = pool.submit(() -> userService.getUserByEmail("john@example.com"));
+            verify(userRepository, timeout(1000)).findDtoByEmail("john@example.com");
+            Future<UserDto> follower = pool.submit(() -> userService.getUserByEmail("john@example.com"));
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+            while (userService.getByEmailLookups().collapsed() == 0 && System.nanoTime() < deadline) {
+                Thread.onSpinWait();
+            }
+            release.countDown();
+
+            // Assert
+            assertEquals(1L, leader.get(1, TimeUnit.SECONDS).getId());
+            assertEquals(1L, follower.get(1, TimeUnit.SECONDS).getId());
+            assertEquals(1, userService.getByEmailLookups().collapsed());
+            verify(userRepository, times(1)).findDtoByEmail("john@example.com");
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void getUserByEmail_ShouldLookUpNormalizedEmail() {
+        // Arrange
+        UserDto user = new UserDto(1L, "John Doe", "john@example.com", 30, LocalDateTime.now(), 0L);
+        when(userRepository.findDtoByEmail("john@example.com")).thenReturn(Optional.of(user));
+
+        // Act
+        UserDto result = userService.getUserByEmail("  JOHN@example.com");
+
+        // Assert
+        assertEquals(1L, result.getId());
+        assertEquals("Email must not be blank", assertThrows(IllegalArgumentException.class,
+                () -> userService.getUserByEmail(" ")).getMessage());
+    }
+
+    @Test
+    void getUserByEmail_ShouldThrowException_WhenUserNotExists() {
+        // Arrange
+        when(userRepository.findDtoByEmail("missing@example.com")).thenReturn(Optional.empty());
+
+        // Act & Assert
+        IllegalArgumentException exception = assertThrows(
+                IllegalArgumentException.class,
+                () -> userService.getUserByEmail("missing@example.com")
+        );
+
+        assertEquals("User not found with email: missing@example.com", exception.getMessage());
+    }
+
+    @Test
+    void getUsersByIds_ShouldPreserveOrder_AndReportMissing_UsingCacheForHits() {
+        // Arrange
+        UserDto cached = new UserDto(1L, "Cached", "cached@example.com", 20, LocalDateTime.now(), 0L);
+        UserDto loaded = new UserDto(3L, "Loaded", "loaded@example.com", 30, LocalDateTime.now(), 0L);
+
+        when(userRepository.findDtoById(1L)).thenReturn(Optional.of(cached));
+        when(userRepository.findAllByIdAny(List.of(3L, 2L))).thenReturn(List.of(loaded));
+        userService.getUserById(1L);
+
+        // Act
+        UserLookupResponse response = userService.getUsersByIds(List.of(3L, 1L, 2L, 3L));
+
+        // Assert
+        assertEquals(List.of(3L, 1L), response.getUsers().stream().map(UserDto::getId).toList());
+        assertEquals(List.of(2L), response.getMissing());
+        verify(userRepository).findAllByIdAny(List.of(3L, 2L));
+    }
+
+    @Test
+    void getUsers_ShouldReturnNextCursor_WhenMoreRowsExist() {
+        // Arrange
+        UserDto user1 = new UserDto(1L, "User1", "user1@example.com", 25, LocalDateTime.now(), 0L);
+        UserDto user2 = new UserDto(2L, "User2", "user2@example.com", 30, LocalDateTime.now(), 0L);
+        UserDto user3 = new UserDto(3L, "User3", "user3@example.com", 35, LocalDateTime.now(), 0L);
+
+        when(userRepository.findDtosAfterId(0L, Limit.of(3)))
+                .thenReturn(Arrays.asList(user1, user2, user3));
+
+        // Act
+        UserPage result = userService.getUsers(null, 2);
+
+        // Assert
+        assertEquals(2, result.getItems().size());
+        assertEquals("User1", result.getItems().get(0).getName());
+        assertEquals("User2", result.getItems().get(1).getName());
+        assertEquals(2L, CursorCodec.decode(result.getNextCursor()));
+    }
+
+    @Test
+    void getUsers_ShouldResumeAfterCursor_AndEndOnLastPage() {
+        // Arrange
+        UserDto user3 = new UserDto(3L, "User3", "user3@example.com", 35, LocalDateTime.now(), 0L);
+
+        when(userRepository.findDtosAfterId(2L, Limit.of(3)))
+                .thenReturn(List.of(user3));
+
+        // Act
+        UserPage result = userService.getUsers(CursorCodec.encode(2L), 2);
+
+        // Assert
+        assertEquals(1, result.getItems().size());
+        assertEquals(3L, result.getItems().get(0).getId());
+        assertNull(result.getNextCursor());
     }
 
     @Test
-    void getAllUsers_ShouldReturnAllUsers() {
+    void getUsers_WithFieldSubset_ShouldSelectOnlyThoseColumns() {
         // Arrange
-        User user1 = new User("User1", "user1@example.com", 25);
-        user1.setId(1L);
-        User user2 = new User("User2", "user2@example.com", 30);
-        user2.setId(2L);
-        List<User> users = Arrays.asList(user1, user2);
+        Set<UserField> fields = UserField.parse("email");
+        UserDto narrowed = new UserDto();
+        narrowed.setId(1L);
+        narrowed.setEmail("user1@example.com");
+
+        when(userRepository.findFieldsAfterId(fields, 0L, 3)).thenReturn(List.of(narrowed));
+
+        // Act
+        UserPage result = userService.getUsers(null, 2, fields);
+
+        // Assert
+        assertEquals("user1@example.com", result.getItems().get(0).getEmail());
+        assertNull(result.getNextCursor());
+        verify(userRepository, never()).findDtosAfterId(any(), any());
+    }
+
+    @Test
+    void getUsers_WithAllFields_ShouldUseFullProjection() {
+        // Arrange
+        when(userRepository.findDtosAfterId(0L, Limit.of(3))).thenReturn(List.of());
+
+        // Act
+        userService.getUsers(null, 2, EnumSet.allOf(UserField.class));
+
+        // Assert
+        verify(userRepository, never()).findFieldsAfterId(any(), anyLong(), anyInt());
+    }
+
+    @Test
+    void getUsers_ShouldThrowException_WhenCursorIsMalformed() {
+        // Act & Assert
+        IllegalArgumentException exception = assertThrows(
+                IllegalArgumentException.class,
+                () -> userService.getUsers("not-a-cursor", 10)
+        );
+
+        assertEquals("Invalid cursor: not-a-cursor", exception.getMessage());
+    }
+
+    @Test
+    void searchUsers_ShouldFetchOneExtraRow_AndReturnNextCursor() {
+        // Arrange
+        UserSearchRequest criteria = new UserSearchRequest();
+        criteria.setName("user");
+        UserDto user1 = new UserDto(4L, "User1", "user1@example.com", 25, LocalDateTime.now(), 0L);
+        UserDto user2 = new UserDto(9L, "User2", "user2@example.com", 30, LocalDateTime.now(), 0L);
+
+        when(userRepository.search(criteria, 2L, 2)).thenReturn(List.of(user1, user2));
+
+        // Act
+        UserPage result = userService.searchUsers(criteria, CursorCodec.encode(2L), 1);
+
+        // Assert
+        assertEquals(1, result.getItems().size());
+        assertEquals("User1", result.getItems().get(0).getName());
+        assertEquals(4L, CursorCodec.decode(result.getNextCursor()));
+    }
+
+    @Test
+    void searchUsers_ShouldRejectFiltersNoIndexCanServe() {
+        // Arrange
+        UserSearchRequest shortSubstring = new UserSearchRequest();
+        shortSubstring.setName("jo");
+        UserSearchRequest blankName = new UserSearchRequest();
+        blankName.setName("  ");
+        UserSearchRequest inverted = new UserSearchRequest();
+        inverted.setMinAge(40);
+        inverted.setMaxAge(18);
+        UserSearchRequest emptyRange = new UserSearchRequest();
+        emptyRange.setCreatedFrom(LocalDateTime.of(2024, 1, 1, 0, 0));
+        emptyRange.setCreatedTo(LocalDateTime.of(2024, 1, 1, 0, 0));
+
+        // Act & Assert
+        assertEquals("Name substring must be at least 3 characters", assertThrows(IllegalArgumentException.class,
+                () -> userService.searchUsers(shortSubstring, null, 10)).getMessage());
+        assertEquals("Name filter must not be blank", assertThrows(IllegalArgumentException.class,
+                () -> userService.searchUsers(blankName, null, 10)).getMessage());
+        assertEquals("minAge must not exceed maxAge", assertThrows(IllegalArgumentException.class,
+                () -> userService.searchUsers(inverted, null, 10)).getMessage());
+        assertEquals("createdFrom must be before createdTo", assertThrows(IllegalArgumentException.class,
+                () -> userService.searchUsers(emptyRange, null, 10)).getMessage());
+        verify(userRepository, never()).search(any(), anyLong(), anyInt());
+    }
+
+    @Test
+    void searchUsers_ShouldAllowShortPrefix() {
+        // Arrange
+        UserSearchRequest criteria = new UserSearchRequest();
+        criteria.setName("j");
+        criteria.setMatch(UserSearchRequest.Match.PREFIX);
+        when(userRepository.search(criteria, 0L, 11)).thenReturn(List.of());
+
+        // Act
+        UserPage result = userService.searchUsers(criteria, null, 10);
+
+        // Assert
+        assertEquals(0, result.getItems().size());
+        assertNull(result.getNextCursor());
+    }
 
-        when(userRepository.findAll()).thenReturn(users);
+    @Test
+    void exportUsers_ShouldPassEveryStreamedRowToSink() {
+        // Arrange
+        UserDto user1 = new UserDto(1L, "User1", "user1@example.com", 25, LocalDateTime.now());
+        UserDto user2 = new UserDto(2L, "User2", "user2@example.com", 30, LocalDateTime.now());
+        when(userRepository.streamAllAsDto()).thenReturn(Stream.of(user1, user2));
+        List<UserDto> exported = new ArrayList<>();
 
         // Act
-        List<UserDto> result = userService.getAllUsers();
+        userService.exportUsers(exported::add);
 
         // Assert
-        assertEquals(2, result.size());
-        assertEquals("User1", result.get(0).getName());
-        assertEquals("User2", result.get(1).getName());
-        verify(userRepository).findAll();
+        assertEquals(List.of(user1, user2), exported);
+        verify(userRepository).streamAllAsDto();
     }
 
     @Test
@@ -146,14 +582,12 @@ class UserServiceTest {
         Long userId = 1L;
         UpdateUserRequest request = new UpdateUserRequest("Updated Name", "updated@example.com", 35);
 
-        User existingUser = new User("Old Name", "old@example.com", 30);
-        existingUser.setId(userId);
         User updatedUser = new User("Updated Name", "updated@example.com", 35);
         updatedUser.setId(userId);
+        updatedUser.setVersion(1L);
 
-        when(userRepository.findById(userId)).thenReturn(Optional.of(existingUser));
-        when(userRepository.existsByEmail("updated@example.com")).thenReturn(false);
-        when(userRepository.save(any(User.class))).thenReturn(updatedUser);
+        when(userRepository.updateReturning(userId, "Updated Name", "updated@example.com", 35, null))
+                .thenReturn(Optional.of(updatedUser));
 
         // Act
         UserDto result = userService.updateUser(userId, request);
@@ -162,10 +596,11 @@ class UserServiceTest {
         assertEquals("Updated Name", result.getName());
         assertEquals("updated@example.com", result.getEmail());
         assertEquals(35, result.getAge());
+        assertEquals(1L, result.getVersion());
 
-        verify(userRepository).findById(userId);
-        verify(userRepository).existsByEmail("updated@example.com");
-        verify(userRepository).save(any(User.class));
+        verify(userRepository, never()).findDtoById(userId);
+        verify(userRepository, never()).existsByEmail(anyString());
+        verify(userRepository, never()).save(any(User.class));
     }
 
     @Test
@@ -174,7 +609,8 @@ class UserServiceTest {
         Long userId = 999L;
         UpdateUserRequest request = new UpdateUserRequest("Name", "email@example.com", 25);
 
-        when(userRepository.findById(userId)).thenReturn(Optional.empty());
+        when(userRepository.updateReturning(userId, "Name", "email@example.com", 25, null))
+                .thenReturn(Optional.empty());
 
         // Act & Assert
         IllegalArgumentException exception = assertThrows(
@@ -183,7 +619,6 @@ class UserServiceTest {
         );
 
         assertEquals("User not found with id: " + userId, exception.getMessage());
-        verify(userRepository).findById(userId);
         verify(userRepository, never()).existsByEmail(anyString());
         verify(userRepository, never()).save(any(User.class));
     }
@@ -194,11 +629,8 @@ class UserServiceTest {
         Long userId = 1L;
         UpdateUserRequest request = new UpdateUserRequest("New Name", "existing@example.com", 35);
 
-        User existingUser = new User("Current User", "current@example.com", 30);
-        existingUser.setId(userId);
-
-        when(userRepository.findById(userId)).thenReturn(Optional.of(existingUser));
-        when(userRepository.existsByEmail("existing@example.com")).thenReturn(true);
+        when(userRepository.updateReturning(userId, "New Name", "existing@example.com", 35, null))
+                .thenThrow(new DuplicateKeyException("duplicate key value violates unique constraint"));
 
         // Act & Assert
         IllegalArgumentException exception = assertThrows(
@@ -207,57 +639,98 @@ class UserServiceTest {
         );
 
         assertEquals("User with email existing@example.com already exists", exception.getMessage());
-        verify(userRepository).findById(userId);
-        verify(userRepository).existsByEmail("existing@example.com");
         verify(userRepository, never()).save(any(User.class));
     }
 
     @Test
-    void updateUser_ShouldAllowSameEmail_WhenUpdatingSameUser() {
+    void updateUser_ShouldThrowOptimisticLockingFailure_WhenVersionIsStale() {
         // Arrange
         Long userId = 1L;
-        String sameEmail = "same@example.com";
-        UpdateUserRequest request = new UpdateUserRequest("New Name", sameEmail, 35);
+        UpdateUserRequest request = new UpdateUserRequest("New Name", "same@example.com", 35);
 
-        User existingUser = new User("Old Name", sameEmail, 30);
-        existingUser.setId(userId);
-        User updatedUser = new User("New Name", sameEmail, 35);
-        updatedUser.setId(userId);
+        when(userRepository.updateReturning(userId, "New Name", "same@example.com", 35, 3L))
+                .thenReturn(Optional.empty());
+        when(userRepository.existsById(userId)).thenReturn(true);
+
+        // Act & Assert
+        OptimisticLockingFailureException exception = assertThrows(
+                OptimisticLockingFailureException.class,
+                () -> userService.updateUser(userId, request, 3L)
+        );
+
+        assertEquals("User 1 was modified concurrently; expected version 3", exception.getMessage());
+    }
+
+    @Test
+    void patchUser_ShouldWriteOnlySuppliedFields() {
+        // Arrange
+        Long userId = 1L;
+        User patched = new User("John Doe", "john@example.com", 31);
+        patched.setId(userId);
+        patched.setVersion(2L);
 
-        when(userRepository.findById(userId)).thenReturn(Optional.of(existingUser));
-        when(userRepository.save(any(User.class))).thenReturn(updatedUser);
+        when(userRepository.patchReturning(userId, null, null, 31, 1L)).thenReturn(Optional.of(patched));
 
         // Act
-        UserDto result = userService.updateUser(userId, request);
+        UserDto result = userService.patchUser(userId, new PatchUserRequest(null, null, 31), 1L);
 
         // Assert
-        assertEquals("New Name", result.getName());
-        assertEquals(sameEmail, result.getEmail());
-        assertEquals(35, result.getAge());
+        assertEquals(31, result.getAge());
+        assertEquals(2L, result.getVersion());
+        verify(userRepository).patchReturning(userId, null, null, 31, 1L);
+        verify(userRepository, never()).existsByEmail(anyString());
+        verify(userRepository, never()).findDtoById(userId);
+    }
+
+    @Test
+    void patchUser_ShouldReturnCurrentUser_WhenPatchIsEmpty() {
+        // Arrange
+        Long userId = 1L;
+        UserDto user = new UserDto(userId, "John Doe", "john@example.com", 30, LocalDateTime.now(), 0L);
+
+        when(userRepository.findDtoById(userId)).thenReturn(Optional.of(user));
+
+        // Act
+        UserDto result = userService.patchUser(userId, new PatchUserRequest(), null);
 
-        verify(userRepository).findById(userId);
-        verify(userRepository, never()).existsByEmail(sameEmail);
-        verify(userRepository).save(any(User.class));
+        // Assert
+        assertEquals("John Doe", result.getName());
+        verify(userRepository, never()).patchReturning(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void patchUser_ShouldThrowException_WhenNewEmailAlreadyExists() {
+        // Arrange
+        Long userId = 1L;
+        when(userRepository.patchReturning(userId, null, "existing@example.com", null, null))
+                .thenThrow(new DuplicateKeyException("duplicate key value violates unique constraint"));
+
+        // Act & Assert
+        IllegalArgumentException exception = assertThrows(
+                IllegalArgumentException.class,
+                () -> userService.patchUser(userId, new PatchUserRequest(null, "existing@example.com", null), null)
+        );
+
+        assertEquals("User with email existing@example.com already exists", exception.getMessage());
     }
 
     @Test
     void deleteUser_ShouldDeleteUser_WhenUserExists() {
         // Arrange
         Long userId = 1L;
-        when(userRepository.existsById(userId)).thenReturn(true);
-        doNothing().when(userRepository).deleteById(userId);
+        when(userRepository.deleteReturningVersion(userId)).thenReturn(Optional.of(0L));
 
         // Act & Assert
         assertDoesNotThrow(() -> userService.deleteUser(userId));
-        verify(userRepository).existsById(userId);
-        verify(userRepository).deleteById(userId);
+        verify(userRepository).deleteReturningVersion(userId);
+        verify(userRepository, never()).existsById(userId);
     }
 
     @Test
     void deleteUser_ShouldThrowException_WhenUserNotFound() {
         // Arrange
         Long userId = 999L;
-        when(userRepository.existsById(userId)).thenReturn(false);
+        when(userRepository.deleteReturningVersion(userId)).thenReturn(Optional.empty());
 
         // Act & Assert
         IllegalArgumentException exception = assertThrows(
@@ -266,7 +739,51 @@ class UserServiceTest {
         );
 
         assertEquals("User not found with id: " + userId, exception.getMessage());
-        verify(userRepository).existsById(userId);
-        verify(userRepository, never()).deleteById(userId);
+        verify(userRepository).deleteReturningVersion(userId);
+    }
+
+    @Test
+    void deleteUsers_ShouldReportDeletedAndMissingIds_InRequestOrder() {
+        // Arrange
+        when(userRepository.deleteAllByIdReturning(any())).thenReturn(Map.of(3L, 0L, 1L, 2L));
+
+        // Act
+        BulkDeleteResponse response = userService.deleteUsers(List.of(1L, 2L, 3L, 1L));
+
+        // Assert
+        assertEquals(List.of(1L, 3L), response.getDeleted());
+        assertEquals(List.of(2L), response.getMissing());
+        verify(userRepository).deleteAllByIdReturning(Set.of(1L, 2L, 3L));
+    }
+
+    @Test
+    void crudOperations_ShouldStayWithinRepositoryCallBudget() {
+        // Arrange
+        User saved = new User("John Doe", "john@example.com", 30);
+        saved.setId(1L);
+        saved.setVersion(0L);
+        User updated = new User("John Updated", "john@example.com", 31);
+        updated.setId(1L);
+        updated.setVersion(1L);
+
+        when(userRepository.insertIfEmailAbsent(any(User.class))).thenReturn(Optional.of(saved));
+        when(userRepository.findDtoById(1L)).thenReturn(Optional.of(UserMapper.toDto(saved)));
+        when(userRepository.updateReturning(1L, "John Updated", "john@example.com", 31, 0L))
+                .thenReturn(Optional.of(updated));
+        when(userRepository.deleteReturningVersion(1L)).thenReturn(Optional.of(1L));
+
+        // Act
+        userService.createUser(new CreateUserRequest("John Doe", "john@example.com", 30));
+        userService.getUserById(1L);
+        userService.getUserById(1L);
+        userService.updateUser(1L, new UpdateUserRequest("John Updated", "john@example.com", 31), 0L);
+        userService.deleteUser(1L);
+
+        // Assert: one repository call per write, one load for both reads, nothing else
+        verify(userRepository).insertIfEmailAbsent(any(User.class));
+        verify(userRepository).findDtoById(1L);
+        verify(userRepository).updateReturning(1L, "John Updated", "john@example.com", 31, 0L);
+        verify(userRepository).deleteReturningVersion(1L);
+        verifyNoMoreInteractions(userRepository);
     }
 }
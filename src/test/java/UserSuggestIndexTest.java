@@ -0,0 +1,235 @@
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.dto.UserSuggestion;
+import org.example.search.UserSuggestIndex;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UserSuggestIndexTest {
+
+    private final UserSuggestIndex index = new UserSuggestIndex(10_000);
+
+    @Test
+    void suggest_ShouldRankNamePrefixAboveSubstringAboveEmail() {
+        // Given
+        index.putAfterCommit(user(1L, "Malice Ward", "ward@example.com", 0L));
+        index.putAfterCommit(user(2L, "Bob Stone", "alice.fan@example.com", 0L));
+        index.putAfterCommit(user(3L, "Alice Cooper", "cooper@example.com", 0L));
+        index.putAfterCommit(user(4L, "Al", "al@example.com", 0L));
+
+        // When
+        List<UserSuggestion> found = index.suggest("ALIC", 10);
+
+        // Then
+        assertEquals(List.of(3L, 1L, 2L), ids(found));
+    }
+
+    @Test
+    void suggest_ShouldMatchShortQueriesAsWordPrefixes_AndRequireEveryWord() {
+        // Given
+        index.putAfterCommit(user(1L, "John Doe", "john.doe@example.com", 0L));
+        index.putAfterCommit(user(2L, "Jane Doe", "jane@example.com", 0L));
+        index.putAfterCommit(user(3L, "Bojo Smith", "bojo@example.com", 0L));
+
+        // When / Then
+        assertEquals(List.of(1L, 2L), ids(index.suggest("j", 10)));
+        assertEquals(List.of(1L), ids(index.suggest("doe jo", 10)));
+        assertEquals(List.of(1L), ids(index.suggest("john.doe@", 10)));
+        assertEquals(List.of(), ids(index.suggest("oh", 10)));
+        assertEquals(List.of(), ids(index.suggest("  ", 10)));
+    }
+
+    @Test
+    void suggest_ShouldReturnTopKOnly() {
+        // Given
+        LongStream.rangeClosed(1, 100).forEach(id ->
+                index.putAfterCommit(user(id, "User " + "x".repeat((int) id), "user" + id + "@example.com", 0L)));
+
+        // When
+        List<UserSuggestion> found = index.suggest("user", 3);
+
+        // Then: ties on score go to the shortest names
+        assertEquals(List.of(1L, 2L, 3L), ids(found));
+    }
+
+    @Test
+    void suggest_ShouldStillRankUsersAddedAfterTheBulkLoad() {
+        // Given: the bulk load alone fills the page with name-prefix matches
+        index.rebuild(() -> LongStream.rangeClosed(1, 100)
+                .mapToObj(id -> user(id, "Imp " + (1000 + id), "imp" + id + "@example.com", 0L)));
+        index.putAfterCommit(user(500L, "Imp", "imp@example.com", 0L));
+
+        // When
+        List<UserSuggestion> found = index.suggest("imp", 3);
+
+        // Then
+        assertEquals(List.of(500L, 1L, 2L), ids(found));
+    }
+
+    @Test
+    void suggest_ShouldVerifyAtMostMaxCandidates() {
+        // Given: every user matches "example" by email only, so no page of best scores ever fills
+        UserSuggestIndex bounded = new UserSuggestIndex(5);
+        bounded.rebuild(() -> LongStream.rangeClosed(1, 100)
+                .mapToObj(id -> user(id, "User " + id, "user" + id + "@example.com", 0L)));
+
+        // When
+        List<UserSuggestion> found = bounded.suggest("example", 10);
+
+        // Then: the best of the first five in load order, shortest names first
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L), ids(found));
+    }
+
+    @Test
+    void put_ShouldReplaceOlderVersion_AndIgnoreStaleOne() {
+        // Given
+        index.putAfterCommit(user(1L, "Alice Cooper", "alice@example.com", 0L));
+
+        // When
+        index.putAfterCommit(user(1L, "Carol Baker", "carol@example.com", 2L));
+        index.putAfterCommit(user(1L, "Alice Stale", "alice@example.com", 1L));
+
+        // Then
+        assertEquals(List.of(), ids(index.suggest("alice", 10)));
+        assertEquals(List.of(1L), ids(index.suggest("carol", 10)));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void remove_ShouldDropUser_AndCompactOnceRemovalsDominate() {
+        // Given
+        LongStream.rangeClosed(1, 3000).forEach(id ->
+                index.putAfterCommit(user(id, "Person " + id, "p" + id + "@example.com", 0L)));
+        long before = index.estimatedBytes();
+
+        // When
+        LongStream.rangeClosed(1, 2900).forEach(id -> index.removeAfterCommit(id, 0L));
+
+        // Then
+        assertEquals(100, index.size());
+        assertEquals(List.of(), ids(index.suggest("person 15", 10)));
+        assertEquals(List.of(2950L), ids(index.suggest("person 2950", 10)));
+        assertTrue(index.estimatedBytes() < before / 4, "Index did not shrink: " + index.estimatedBytes());
+    }
+
+    @Test
+    void rebuild_ShouldReplaceContents_AndKeepChangesMadeWhileStreaming() {
+        // Given
+        index.putAfterCommit(user(1L, "Gone Away", "gone@example.com", 0L));
+        Stream<UserSuggestion> table = Stream.of(user(2L, "Kept User", "kept@example.com", 0L))
+                .peek(user -> index.putAfterCommit(user(3L, "Added Meanwhile", "added@example.com", 0L)));
+
+        // When
+        index.rebuild(() -> table);
+
+        // Then
+        assertEquals(List.of(), ids(index.suggest("gone", 10)));
+        assertEquals(List.of(2L), ids(index.suggest("kept", 10)));
+        assertEquals(List.of(3L), ids(index.suggest("added", 10)));
+    }
+
+    @Test
+    void rebuild_ShouldKeepChangesCommittedWhileTheSnapshotQueryStarts() {
+        // Given: a write commits after the rebuild began but before the snapshot can see it
+        Supplier<Stream<UserSuggestion>> snapshot = () -> {
+            index.putAfterCommit(user(3L, "Added Meanwhile", "added@example.com", 0L));
+            return Stream.of(user(2L, "Kept User", "kept@example.com", 0L));
+        };
+
+        // When
+        index.rebuild(snapshot);
+
+        // Then
+        assertEquals(List.of(3L), ids(index.suggest("added", 10)));
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    void remove_ShouldIgnoreLatePutAtOrBelowDeletedVersion() {
+        // Given: user 1 was updated to version 1, then deleted; the update's callback runs last
+        index.putAfterCommit(user(1L, "Alice Cooper", "alice@example.com", 0L));
+        index.removeAfterCommit(1L, 1L);
+
+        // When
+        index.putAfterCommit(user(1L, "Alice Updated", "alice@example.com", 1L));
+        index.putAll(Stream.of(user(1L, "Alice Imported", "alice@example.com", 0L)));
+
+        // Then
+        assertEquals(List.of(), ids(index.suggest("alice", 10)));
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    void remove_ShouldWinOverPutArrivingFirst_AndSurviveRebuild() {
+        // Given: the delete's callback runs before the insert's
+        index.removeAfterCommit(1L, 0L);
+        index.putAfterCommit(user(1L, "Alice Cooper", "alice@example.com", 0L));
+
+        // When: a later rebuild replays a stale put that arrives while it streams
+        index.rebuild(() -> Stream.of(user(2L, "Bob Stone", "bob@example.com", 0L))
+                .peek(user -> index.putAfterCommit(user(1L, "Alice Cooper", "alice@example.com", 0L))));
+
+        // Then
+        assertEquals(List.of(), ids(index.suggest("alice", 10)));
+        assertEquals(List.of(2L), ids(index.suggest("bob", 10)));
+    }
+
+    @Test
+    void rebuild_ShouldDropTombstonesTheSnapshotAlreadyReflects() {
+        // Given
+        LongStream.rangeClosed(1, 500).forEach(id -> index.removeAfterCommit(id, 1L));
+        UserSuggestIndex fresh = new UserSuggestIndex(10_000);
+        fresh.rebuild(() -> Stream.of(user(1000L, "Bob Stone", "bob@example.com", 0L)));
+
+        // When
+        index.rebuild(() -> Stream.of(user(1000L, "Bob Stone", "bob@example.com", 0L)));
+
+        // Then
+        assertEquals(fresh.estimatedBytes(), index.estimatedBytes());
+        assertEquals(List.of(1000L), ids(index.suggest("bob", 10)));
+    }
+
+    @Test
+    void putAll_ShouldIndexCommittedRows_WithoutDroppingOthers() {
+        // Given
+        index.putAfterCommit(user(1L, "John Doe", "john@example.com", 1L));
+
+        // When: the import read an older version of user 1
+        index.putAll(Stream.of(user(2L, "Jane Doe", "jane@example.com", 0L),
+                user(1L, "John Stale", "john@example.com", 0L)));
+
+        // Then
+        assertEquals(List.of(1L, 2L), ids(index.suggest("doe", 10)));
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    void bindTo_ShouldPublishSizeMemoryAndRebuildTime() {
+        // Given
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        index.bindTo(registry);
+
+        // When
+        index.rebuild(() -> Stream.of(user(1L, "John Doe", "john@example.com", 0L)));
+
+        // Then
+        assertEquals(1.0, registry.get("users.suggest.documents").gauge().value());
+        assertTrue(registry.get("users.suggest.grams").gauge().value() > 0);
+        assertTrue(registry.get("users.suggest.memory").gauge().value() > 0);
+        assertEquals(1, registry.get("users.suggest.rebuild").timer().count());
+    }
+
+    private static UserSuggestion user(long id, String name, String email, long version) {
+        return new UserSuggestion(id, name, email, version);
+    }
+
+    private static List<Long> ids(List<UserSuggestion> users) {
+        return users.stream().map(UserSuggestion::getId).toList();
+    }
+}